@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.techgnious.IVCompressor;
+import io.github.techgnious.corpus.SyntheticMedia;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.exception.ImageException;
+
+/**
+ * Resize of PNG images with alpha into JPEG, which has no alpha, so that the
+ * resized image is rendered again onto an opaque image before it is encoded
+ *
+ * @author srikanth.anreddy
+ *
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransparentImageBenchmark {
+
+	@Param({ "640x480", "1920x1080", "4000x3000" })
+	public String dimensions;
+
+	@Param({ "THUMBNAIL", "R720P" })
+	public ResizeResolution resolution;
+
+	private final IVCompressor compressor = new IVCompressor();
+
+	private byte[] image;
+
+	@Setup
+	public void createImage() throws IOException {
+		String[] size = dimensions.split("x");
+		image = SyntheticMedia.createImage(Integer.parseInt(size[0]), Integer.parseInt(size[1]), ImageFormats.PNG,
+				true, SyntheticMedia.DEFAULT_SEED);
+	}
+
+	@Benchmark
+	public byte[] resizeTransparentImageToJpeg() throws ImageException {
+		return compressor.resizeImage(image, ImageFormats.JPG, resolution);
+	}
+}
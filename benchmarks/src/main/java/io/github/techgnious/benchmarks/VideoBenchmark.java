@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.techgnious.IVCompressor;
+import io.github.techgnious.corpus.SyntheticMedia;
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.ReencodePolicy;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.dto.TransferMode;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoProfile;
+import io.github.techgnious.exception.VideoException;
+
+/**
+ * Encode of a short clip in memory, per target resolution and transfer mode.
+ * The clip is generated by {@link SyntheticMedia}, so that no media has to be
+ * downloaded
+ *
+ * @author srikanth.anreddy
+ *
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VideoBenchmark {
+
+	@Param({ "R240P", "R480P" })
+	public ResizeResolution resolution;
+
+	@Param({ "TEMP_FILES", "PIPES" })
+	public TransferMode transferMode;
+
+	private final IVCompressor compressor = new IVCompressor();
+
+	private byte[] video;
+
+	private VideoProfile profile;
+
+	@Setup
+	public void createVideo() throws IOException {
+		Path file = Files.createTempFile("benchmark", "." + VideoFormats.MP4.getType());
+		try {
+			video = Files.readAllBytes(
+					SyntheticMedia.createVideo(file, VideoFormats.MP4, Duration.ofSeconds(4), new IVSize(1280, 720)));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		// the clip is within most profiles, which would skip the encode
+		profile = VideoProfile.builder(VideoFormats.MP4).resolution(resolution).transferMode(transferMode)
+				.reencodePolicy(ReencodePolicy.ALWAYS).build();
+	}
+
+	@Benchmark
+	public byte[] reduceVideoSize() throws VideoException {
+		return compressor.reduceVideoSize(video, profile);
+	}
+}
@@ -21,32 +21,80 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Optional;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 import org.apache.commons.io.FileUtils;
 
 import io.github.techgnious.constants.IVConstants;
 import io.github.techgnious.dto.IVAudioAttributes;
 import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.IVStoryboard;
 import io.github.techgnious.dto.IVVideoAttributes;
 import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.ImageProfile;
+import io.github.techgnious.dto.ProcessingStage;
+import io.github.techgnious.dto.ReencodePolicy;
+import io.github.techgnious.dto.RejectionPolicy;
 import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.dto.StreamingFormats;
+import io.github.techgnious.dto.TransferMode;
 import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoProfile;
 import io.github.techgnious.exception.ImageException;
 import io.github.techgnious.exception.VideoException;
-import io.github.techgnious.utils.IVFileUtils;
-import ws.schild.jave.Encoder;
+import io.github.techgnious.ffmpeg.ContainerCodecs;
+import io.github.techgnious.ffmpeg.FFmpegCommand;
+import io.github.techgnious.ffmpeg.FFmpegException;
+import io.github.techgnious.ffmpeg.FFmpegMonitor;
+import io.github.techgnious.ffmpeg.FFmpegRunner;
+import io.github.techgnious.listener.IVMetricsListener;
+import io.github.techgnious.listener.IVProgressListener;
+import io.github.techgnious.resample.Resampler;
+import io.github.techgnious.resample.Resamplers;
+import io.github.techgnious.utils.IVImageUtils;
+import io.github.techgnious.utils.IVResultCache;
+import io.github.techgnious.utils.IVScratchSpace;
+import io.github.techgnious.utils.IVVideoUtils;
+import io.github.techgnious.utils.IVWorkerPool;
+import ws.schild.jave.EncoderException;
 import ws.schild.jave.MultimediaObject;
-import ws.schild.jave.encode.AudioAttributes;
-import ws.schild.jave.encode.EncodingAttributes;
-import ws.schild.jave.encode.VideoAttributes;
-import ws.schild.jave.encode.enums.X264_PROFILE;
-import ws.schild.jave.info.VideoSize;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.process.ProcessLocator;
+import ws.schild.jave.process.ffmpeg.DefaultFFMPEGLocator;
 
 /**
  * Base Class to handle compression or conversion of Image/Video Files.
@@ -61,58 +109,105 @@ import ws.schild.jave.info.VideoSize;
 public class IVCompressor {
 
 	/**
-	 * Encoder that is used to reduce the quality of video
+	 * Minimum length of the segments of videos encoded in parallel, below which
+	 * the cost of starting ffmpeg outweighs the gain
 	 */
-	private Encoder encoder;
+	private static final long MIN_SEGMENT_MILLIS = 5000;
 
 	/**
-	 * Encoder attributes for handling the quality of audio
+	 * Locates the ffmpeg executable shared by all calls
 	 */
-	private AudioAttributes audioAttributes;
+	private final ProcessLocator locator;
 
 	/**
-	 * Encoder attributes for handling the quality of video
+	 * Runs the ffmpeg processes of the video calls
 	 */
-	private VideoAttributes videoAttributes;
+	private final FFmpegRunner ffmpeg;
 
 	/**
-	 * Attributes controlling the encoding process.
+	 * Runs the asynchronous video encodes
 	 */
-	private EncodingAttributes encodingAttributes;
+	private final IVWorkerPool videoPool;
 
 	/**
-	 * Defines the image resolution
+	 * Holds the temp files of the video encodes
 	 */
-	private ResizeResolution imageResolution = ResizeResolution.IMAGE_DEFAULT;
+	private final IVScratchSpace scratchSpace;
+
+	/**
+	 * Runs the segments of videos encoded in parallel
+	 */
+	private final IVWorkerPool segmentPool;
+
+	/**
+	 * Holds the results of image and video calls on content, or null if results
+	 * are not cached
+	 */
+	private final IVResultCache resultCache;
+
+	/**
+	 * Results of the calls on content currently running, by their cache key, or
+	 * null if duplicate calls are not coalesced
+	 */
+	private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight;
+
 	/**
-	 * Defines the video resolution
+	 * Receives the measurements of the stages of every call, or null if calls
+	 * are not measured
 	 */
-	private ResizeResolution videoResolution = ResizeResolution.VIDEO_DEFAULT;
+	private final IVMetricsListener metricsListener;
 
 	/**
-	 * Instance invokes with default encode settings and attributes
+	 * Instance invokes with default encode settings and attributes.
+	 * 
+	 * The instance holds no per call state and can be shared between threads.
+	 * Settings are passed per call, either through an {@link ImageProfile} or
+	 * {@link VideoProfile} or derived from the method parameters.
+	 * 
+	 * Asynchronous video encodes of all instances created this way share one
+	 * default worker pool, see {@link IVWorkerPool#createDefault()}.
 	 */
 	public IVCompressor() {
+		this(builder());
+	}
+
+	/**
+	 * Instance invokes with default encode settings and runs the asynchronous
+	 * video encodes on the given worker pool.
+	 * 
+	 * The pool is not closed by the compressor.
+	 * 
+	 * @param videoPool - pool limiting the number of concurrent video encodes
+	 */
+	public IVCompressor(IVWorkerPool videoPool) {
+		this(builder().videoPool(videoPool));
+	}
+
+	private IVCompressor(Builder builder) {
 		super();
-		encoder = new Encoder();
-		videoAttributes = new VideoAttributes();
-		videoAttributes.setCodec(IVConstants.VIDEO_CODEC);
-		videoAttributes.setX264Profile(X264_PROFILE.BASELINE);
-		// Here 160 kbps video is 160000
-		videoAttributes.setBitRate(160000);
-		// More the frames more quality and size, but keep it low based on devices like
-		// mobile
-		videoAttributes.setFrameRate(15);
-		videoAttributes.setSize(new VideoSize(videoResolution.getWidth(), videoResolution.getHeight()));
-		audioAttributes = new AudioAttributes();
-		audioAttributes.setCodec(IVConstants.AUDIO_CODEC);
-		// here 64kbit/s is 64000
-		audioAttributes.setBitRate(64000);
-		audioAttributes.setChannels(2);
-		audioAttributes.setSamplingRate(44100);
-		encodingAttributes = new EncodingAttributes();
-		encodingAttributes.setVideoAttributes(videoAttributes);
-		encodingAttributes.setAudioAttributes(audioAttributes);
+		videoPool = builder.videoPool != null ? builder.videoPool : DefaultVideoPool.INSTANCE;
+		scratchSpace = builder.scratchSpace != null ? builder.scratchSpace : DefaultScratchSpace.INSTANCE;
+		segmentPool = builder.segmentPool != null ? builder.segmentPool : DefaultSegmentPool.INSTANCE;
+		resultCache = builder.resultCache;
+		inFlight = builder.coalesceDuplicates ? new ConcurrentHashMap<>() : null;
+		metricsListener = builder.metricsListener;
+		locator = new DefaultFFMPEGLocator();
+		ffmpeg = new FFmpegRunner(locator);
+	}
+
+	/**
+	 * Creates a builder to configure the resources used by a compressor
+	 * 
+	 * <pre>
+	 * IVCompressor compressor = IVCompressor.builder()
+	 * 		.scratchSpace(new IVScratchSpace(Paths.get("/dev/shm/ivcompressor"), 1L << 30, Duration.ofMinutes(1), true))
+	 * 		.build();
+	 * </pre>
+	 * 
+	 * @return - returns a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
 	}
 
 	/**
@@ -128,9 +223,71 @@ public class IVCompressor {
 	 * @throws ImageException - throws exception if there is issue in process
 	 */
 	public byte[] resizeImage(byte[] data, ImageFormats fileFormat, ResizeResolution resolution) throws ImageException {
-		if (resolution != null)
-			imageResolution = resolution;
-		return rescaleImage(data, imageResolution.getWidth(), imageResolution.getHeight(), fileFormat.getType());
+		return resizeImage(data, fileFormat, resolution, false);
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream to lower resolution.
+	 * 
+	 * When retainSmallerImage is set, images that are already at or below the
+	 * requested resolution are not resized. The original bytes are returned
+	 * untouched if they are already in the requested format, otherwise the image
+	 * is only re-encoded at its own size.
+	 * 
+	 * Returns resized byte stream.
+	 * 
+	 * @param data               - file data in byte array that is to be
+	 *                           compressed
+	 * @param fileFormat         - file type
+	 * @param resolution         - Resolution of output image. Optional Field. Can
+	 *                           be passed as null to use the default values
+	 * @param retainSmallerImage - skips resizing of images that need no downscale
+	 * @return - returns the compressed image in byte array
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public byte[] resizeImage(byte[] data, ImageFormats fileFormat, ResizeResolution resolution,
+			boolean retainSmallerImage) throws ImageException {
+		return resizeImage(data, ImageProfile.builder(fileFormat).resolution(resolution)
+				.retainSmallerImage(retainSmallerImage).build());
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream to lower resolution
+	 * using the given resampler, which decides the speed/quality tradeoff of the
+	 * scaling.
+	 * 
+	 * Returns resized byte stream.
+	 * 
+	 * @param data       - file data in byte array that is to be compressed
+	 * @param fileFormat - file type
+	 * @param resolution - Resolution of output image. Optional Field. Can be passed
+	 *                   as null to use the default values
+	 * @param resampler  - algorithm used to scale the image, e.g.
+	 *                   {@link Resamplers#LANCZOS3}
+	 * @return - returns the compressed image in byte array
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public byte[] resizeImage(byte[] data, ImageFormats fileFormat, ResizeResolution resolution,
+			Resampler resampler) throws ImageException {
+		return resizeImage(data, ImageProfile.builder(fileFormat).resolution(resolution).resampler(resampler).build());
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream with the settings of
+	 * the given profile.
+	 * 
+	 * Profiles are immutable, so the same profile can be used by any number of
+	 * concurrent calls.
+	 * 
+	 * Returns resized byte stream.
+	 * 
+	 * @param data    - file data in byte array that is to be compressed
+	 * @param profile - format, resolution and resampler of the output image
+	 * @return - returns the compressed image in byte array
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public byte[] resizeImage(byte[] data, ImageProfile profile) throws ImageException {
+		return rescaleImage(data, profile);
 	}
 
 	/**
@@ -147,7 +304,123 @@ public class IVCompressor {
 	 * @throws ImageException - throws exception if there is issue in process
 	 */
 	public byte[] resizeImageWithCustomRes(byte[] data, ImageFormats fileFormat, IVSize res) throws ImageException {
-		return rescaleImage(data, res.getWidth(), res.getHeight(), fileFormat.getType());
+		return resizeImageWithCustomRes(data, fileFormat, res, false);
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream to lower resolution with
+	 * custom user defined resolution.
+	 * 
+	 * When retainSmallerImage is set, images that are already at or below the
+	 * requested resolution are not resized. The original bytes are returned
+	 * untouched if they are already in the requested format, otherwise the image
+	 * is only re-encoded at its own size.
+	 * 
+	 * Returns resized byte stream
+	 * 
+	 * @param data               - file data in byte array that is to be
+	 *                           compressed
+	 * @param fileFormat         - file type
+	 * @param res                - Custom Resolution of output image
+	 * @param retainSmallerImage - skips resizing of images that need no downscale
+	 * @return - returns the compressed image in byte array
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public byte[] resizeImageWithCustomRes(byte[] data, ImageFormats fileFormat, IVSize res,
+			boolean retainSmallerImage) throws ImageException {
+		return resizeImage(data,
+				ImageProfile.builder(fileFormat).size(res).retainSmallerImage(retainSmallerImage).build());
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream to lower resolution with
+	 * custom user defined resolution using the given resampler, which decides the
+	 * speed/quality tradeoff of the scaling.
+	 * 
+	 * Returns resized byte stream
+	 * 
+	 * @param data       - file data in byte array that is to be compressed
+	 * @param fileFormat - file type
+	 * @param res        - Custom Resolution of output image
+	 * @param resampler  - algorithm used to scale the image, e.g.
+	 *                   {@link Resamplers#LANCZOS3}
+	 * @return - returns the compressed image in byte array
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public byte[] resizeImageWithCustomRes(byte[] data, ImageFormats fileFormat, IVSize res, Resampler resampler)
+			throws ImageException {
+		return resizeImage(data, ImageProfile.builder(fileFormat).size(res).resampler(resampler).build());
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream to multiple lower
+	 * resolutions at once.
+	 * 
+	 * The image is decoded only once and every smaller rendition is derived from
+	 * the next larger one, which is much cheaper than resizing the same data once
+	 * per resolution.
+	 * 
+	 * Returns resized byte stream for each resolution.
+	 * 
+	 * @param data        - file data in byte array that is to be compressed
+	 * @param fileFormat  - file type
+	 * @param resolutions - Resolutions of the output images
+	 * @return - returns the compressed images keyed by resolution, in the order
+	 *         of the requested resolutions
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public Map<ResizeResolution, byte[]> resizeImage(byte[] data, ImageFormats fileFormat,
+			List<ResizeResolution> resolutions) throws ImageException {
+		List<ImageProfile> profiles = new ArrayList<>();
+		for (ResizeResolution resolution : resolutions)
+			profiles.add(ImageProfile.builder(fileFormat).resolution(resolution).build());
+		List<byte[]> renditions = rescaleImage(data, profiles);
+		Map<ResizeResolution, byte[]> result = new LinkedHashMap<>();
+		for (int i = 0; i < resolutions.size(); i++)
+			result.put(resolutions.get(i), renditions.get(i));
+		return result;
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream to multiple custom user
+	 * defined resolutions at once.
+	 * 
+	 * The image is decoded only once and every smaller rendition is derived from
+	 * the next larger one.
+	 * 
+	 * Returns resized byte stream for each resolution.
+	 * 
+	 * @param data        - file data in byte array that is to be compressed
+	 * @param fileFormat  - file type
+	 * @param resolutions - Custom Resolutions of the output images
+	 * @return - returns the compressed images in the order of the requested
+	 *         resolutions
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public List<byte[]> resizeImageWithCustomRes(byte[] data, ImageFormats fileFormat, List<IVSize> resolutions)
+			throws ImageException {
+		List<ImageProfile> profiles = new ArrayList<>();
+		for (IVSize resolution : resolutions)
+			profiles.add(ImageProfile.builder(fileFormat).size(resolution).build());
+		return rescaleImage(data, profiles);
+	}
+
+	/**
+	 * This method attempts to resize the image byte stream with the settings of
+	 * each of the given profiles at once.
+	 * 
+	 * The image is decoded only once and every smaller rendition is derived from
+	 * the next larger one. Profiles may differ in format and resampler.
+	 * 
+	 * Returns resized byte stream for each profile.
+	 * 
+	 * @param data     - file data in byte array that is to be compressed
+	 * @param profiles - settings of the output images
+	 * @return - returns the compressed images in the order of the profiles
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public List<byte[]> resizeImage(byte[] data, List<ImageProfile> profiles) throws ImageException {
+		return rescaleImage(data, profiles);
 	}
 
 	/**
@@ -167,11 +440,12 @@ public class IVCompressor {
 	public String resizeAndSaveImageToAPath(File file, ImageFormats fileFormat, String path,
 			ResizeResolution imageResolution) throws ImageException {
 		try {
-			byte[] data = resizeImage(IVFileUtils.copyToByteArray(file), fileFormat, imageResolution);
 			String fileName = file.getName();
 			if (!file.getName().contains(fileFormat.getType()))
 				fileName = fileName.substring(0, fileName.indexOf(".")) + "." + fileFormat.getType();
-			return createAndStoreNewFile(fileName, path, data);
+			Path target = createNewFilePath(fileName, path);
+			resizeImage(file.toPath(), target, fileFormat, imageResolution);
+			return "File is saved in path::" + target.toAbsolutePath();
 		} catch (IOException e) {
 			throw new ImageException(e);
 		}
@@ -219,8 +493,13 @@ public class IVCompressor {
 	 */
 	public byte[] resizeImageUsingFile(File file, ImageFormats fileFormat, ResizeResolution imageResolution)
 			throws ImageException, IOException {
-		return resizeImage(IVFileUtils.copyToByteArray(file), fileFormat, imageResolution);
-
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ImageProfile profile = ImageProfile.builder(fileFormat).resolution(imageResolution).build();
+		try (ImageInputStream imageInput = new FileImageInputStream(file);
+				ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(outputStream)) {
+			rescaleImage(imageInput, imageOutput, profile);
+		}
+		return outputStream.toByteArray();
 	}
 
 	/**
@@ -238,14 +517,97 @@ public class IVCompressor {
 	 */
 	public InputStream resizeImage(InputStream stream, ImageFormats fileFormat, ResizeResolution imageResolution)
 			throws ImageException {
-		InputStream targetStream = null;
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		resizeImage(stream, outputStream, fileFormat, imageResolution);
+		return new ByteArrayInputStream(outputStream.toByteArray());
+	}
+
+	/**
+	 * This method attempts to resize the image read from the input stream to lower
+	 * resolution and writes it to the output stream.
+	 * 
+	 * The image is decoded and encoded directly on the streams, without buffering
+	 * the whole payload in memory. Neither stream is closed.
+	 * 
+	 * @param in              - Image input stream that is to be compressed
+	 * @param out             - stream receiving the resized image
+	 * @param fileFormat      - type of the file
+	 * @param imageResolution - Resolution of the output image file.Optional Field.
+	 *                        Can be passed as null to use the default values
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public void resizeImage(InputStream in, OutputStream out, ImageFormats fileFormat,
+			ResizeResolution imageResolution) throws ImageException {
+		resizeImage(in, out, ImageProfile.builder(fileFormat).resolution(imageResolution).build());
+	}
+
+	/**
+	 * This method attempts to resize the image read from the input stream with the
+	 * settings of the given profile and writes it to the output stream.
+	 * 
+	 * The image is decoded and encoded directly on the streams, without buffering
+	 * the whole payload in memory. Neither stream is closed.
+	 * 
+	 * @param in      - Image input stream that is to be compressed
+	 * @param out     - stream receiving the resized image
+	 * @param profile - format, resolution and resampler of the output image
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public void resizeImage(InputStream in, OutputStream out, ImageProfile profile) throws ImageException {
+		try (ImageInputStream imageInput = new MemoryCacheImageInputStream(in);
+				ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(out)) {
+			rescaleImage(imageInput, imageOutput, profile);
+		} catch (IOException e) {
+			throw new ImageException("Stream doesn't contain valid Image", e);
+		}
+	}
+
+	/**
+	 * This method attempts to resize the image file to lower resolution and writes
+	 * it to the target file.
+	 * 
+	 * Both files are accessed directly, without buffering the whole payload in
+	 * memory. An existing target file is overwritten.
+	 * 
+	 * @param source          - file that is to be compressed
+	 * @param target          - file receiving the resized image
+	 * @param fileFormat      - type of the file
+	 * @param imageResolution - Resolution of the output image file.Optional Field.
+	 *                        Can be passed as null to use the default values
+	 * @return - returns the path of the resized image
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public Path resizeImage(Path source, Path target, ImageFormats fileFormat, ResizeResolution imageResolution)
+			throws ImageException {
+		return resizeImage(source, target, ImageProfile.builder(fileFormat).resolution(imageResolution).build());
+	}
+
+	/**
+	 * This method attempts to resize the image file with the settings of the given
+	 * profile and writes it to the target file.
+	 * 
+	 * Both files are accessed directly, without buffering the whole payload in
+	 * memory. An existing target file is overwritten.
+	 * 
+	 * @param source  - file that is to be compressed
+	 * @param target  - file receiving the resized image
+	 * @param profile - format, resolution and resampler of the output image
+	 * @return - returns the path of the resized image
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	public Path resizeImage(Path source, Path target, ImageProfile profile) throws ImageException {
 		try {
-			byte[] data = resizeImage(IVFileUtils.copyToByteArray(stream), fileFormat, imageResolution);
-			targetStream = new ByteArrayInputStream(data);
-			return targetStream;
+			try (ImageInputStream imageInput = new FileImageInputStream(source.toFile());
+					ImageOutputStream imageOutput = createImageOutputStream(target)) {
+				rescaleImage(imageInput, imageOutput, profile);
+			} catch (IOException e) {
+				Files.deleteIfExists(target);
+				throw e;
+			}
 		} catch (IOException e) {
-			throw new ImageException(e);
+			throw new ImageException("File doesn't contain valid Image", e);
 		}
+		return target;
 	}
 
 	/**
@@ -266,319 +628,1681 @@ public class IVCompressor {
 	 */
 	public byte[] reduceVideoSize(byte[] data, VideoFormats fileFormat, ResizeResolution resolution)
 			throws VideoException {
-		String fileType = setAttributes(fileFormat, resolution);
-		return encodeVideo(data, fileType);
+		return encodeVideo(data, createVideoProfile(fileFormat, resolution).build());
 	}
 
 	/**
-	 * This method helps in converting the video to another format.
-	 * 
-	 * Helps in reducing size of video with lower resolution.
-	 * 
-	 * Encodes the video with default attributes thereby reducing the size of the
-	 * video with better quality.
+	 * This method helps in converting the video content with the settings of the
+	 * given profile.
 	 * 
-	 * Maintains the best compressed quality.
+	 * Profiles are immutable, so the same profile can be used by any number of
+	 * concurrent calls.
 	 * 
-	 * @param data         -indicates the video content to be compressed
-	 * @param inputFormat  -to indicate the format of input video
-	 * @param outputFormat -to indicate the format of output video
-	 * @param resolution   -Resolution of the output video
+	 * @param data    -indicates the video content to be compressed
+	 * @param profile -formats and encoding attributes of the output video
 	 * @return -byte stream object with compressed video data
 	 * @throws VideoException -throws exception when the data is incompatible for
 	 *                        the encoding
 	 */
-	public byte[] convertAndResizeVideo(byte[] data, VideoFormats inputFormat, VideoFormats outputFormat,
-			ResizeResolution resolution) throws VideoException {
-		String fileType = inputFormat.getType();
-		encodingAttributes.setInputFormat(fileType);
-		encodingAttributes.setOutputFormat(outputFormat.getType());
-		if (resolution != null) {
-			Optional<VideoAttributes> videoAttr = encodingAttributes.getVideoAttributes();
-			if (videoAttr.isPresent())
-				videoAttr.get().setSize(new VideoSize(resolution.getWidth(), resolution.getHeight()));
-		}
-		return encodeVideo(data, fileType);
+	public byte[] reduceVideoSize(byte[] data, VideoProfile profile) throws VideoException {
+		return encodeVideo(data, profile);
 	}
 
 	/**
-	 * This method is used for resizing using custom resolution but with remaining
-	 * attributes as default.
+	 * This method helps in converting the video content to each of the given
+	 * resolutions at once, e.g. for an adaptive bitrate ladder.
 	 * 
-	 * Encodes the video with default attributes thereby reducing the size of the
-	 * video with better quality.
+	 * The video is decoded only once by a single ffmpeg run writing all
+	 * resolutions, see {@link #reduceVideoSize(byte[], List)}.
 	 * 
-	 * Maintains the best compressed quality.
+	 * @param data        -indicates the video content to be compressed
+	 * @param fileFormat  -to indicate the video type
+	 * @param resolutions -Resolutions of the output videos
+	 * @return -compressed video data for each resolution, in the order of the
+	 *         resolutions
+	 * @throws VideoException -throws exception when the data is incompatible for
+	 *                        the encoding
+	 */
+	public Map<ResizeResolution, byte[]> reduceVideoSize(byte[] data, VideoFormats fileFormat,
+			List<ResizeResolution> resolutions) throws VideoException {
+		List<VideoProfile> profiles = new ArrayList<>();
+		for (ResizeResolution resolution : resolutions)
+			profiles.add(createVideoProfile(fileFormat, resolution).build());
+		List<byte[]> renditions = reduceVideoSize(data, profiles);
+		Map<ResizeResolution, byte[]> result = new LinkedHashMap<>();
+		for (int i = 0; i < resolutions.size(); i++)
+			result.put(resolutions.get(i), renditions.get(i));
+		return result;
+	}
+
+	/**
+	 * This method helps in converting the video content with the settings of
+	 * each of the given profiles at once, e.g. the rungs of an adaptive bitrate
+	 * ladder.
 	 * 
-	 * @param data       -indicates the video content to be compressed
-	 * @param fileFormat -to indicate the video type
-	 * @param resolution -Resolution(width x height) of the output video
-	 * @return -byte stream object with compressed video data
+	 * A single ffmpeg run decodes the video once and splits the decoded frames
+	 * into one encode per profile. The profiles must share the input format and
+	 * may differ in everything else. The content is always staged in temp files
+	 * and the profiles are not encoded in segments.
+	 * 
+	 * @param data     -indicates the video content to be compressed
+	 * @param profiles -formats and encoding attributes of the output videos
+	 * @return -compressed video data in the order of the profiles
 	 * @throws VideoException -throws exception when the data is incompatible for
 	 *                        the encoding
 	 */
-	public byte[] reduceVideoSizeWithCustomRes(byte[] data, VideoFormats fileFormat, IVSize resolution)
-			throws VideoException {
-		String fileType = fileFormat.getType();
-		encodingAttributes.setInputFormat(fileType);
-		encodingAttributes.setOutputFormat(fileType);
-		if (resolution != null) {
-			Optional<VideoAttributes> videoAttr = encodingAttributes.getVideoAttributes();
-			if (videoAttr.isPresent())
-				videoAttr.get().setSize(new VideoSize(resolution.getWidth(), resolution.getHeight()));
+	public List<byte[]> reduceVideoSize(byte[] data, List<VideoProfile> profiles) throws VideoException {
+		if (profiles.isEmpty())
+			return new ArrayList<>();
+		try (IVScratchSpace.Reservation reservation = scratchSpace
+				.reserve(data.length * (profiles.size() + 1L))) {
+			Path source = reservation.createFile(IVConstants.SOURCE_FILENAME, profiles.get(0).getInputFormat());
+			writeVideo(source, data, profiles.get(0).getInputFormat());
+			List<File> targets = new ArrayList<>();
+			for (VideoProfile profile : profiles)
+				targets.add(reservation.createFile(IVConstants.TARGET_FILENAME, profile.getOutputFormat()).toFile());
+			try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_ENCODE)) {
+				timer.format(profiles.get(0).getOutputFormat().getType()).bytesIn(data.length);
+				try {
+					encodeVideo(source.toFile(), targets, profiles);
+				} catch (VideoException e) {
+					timer.exitCode(FFmpegException.findExitCode(e));
+					throw e;
+				}
+				timer.exitCode(0).succeeded();
+			}
+			List<byte[]> renditions = new ArrayList<>();
+			for (int i = 0; i < targets.size(); i++)
+				renditions.add(readVideo(targets.get(i).toPath(), profiles.get(i).getOutputFormat()));
+			return renditions;
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
 		}
-		return encodeVideo(data, fileType);
 	}
 
 	/**
-	 * This method helps in converting the video content to reduced size with lower
-	 * resolution.
-	 * 
-	 * Encodes the video with default attributes thereby reducing the size of the
-	 * video with better quality.
+	 * This method helps in converting the video file with the settings of each
+	 * of the given profiles at once and writes the videos to the target files.
 	 * 
-	 * Maintains the best compressed quality.
+	 * A single ffmpeg run decodes the video once, see
+	 * {@link #reduceVideoSize(byte[], List)}, and writes the target files
+	 * directly. Existing target files are overwritten.
 	 * 
-	 * @param file       -indicates the video file object to be compressed
-	 * @param fileFormat -to indicate the video type
-	 * @param resolution -Resolution of the output video
-	 * @return byte array object with encoded video
+	 * @param source   -video file to be compressed
+	 * @param targets  -files receiving the compressed videos, one per profile
+	 * @param profiles -formats and encoding attributes of the output videos
+	 * @return - returns the paths of the compressed videos
 	 * @throws VideoException - throws exception if there is an issue with video
 	 *                        processing
-	 * @throws IOException    - throws exception if there is issue with file
 	 */
-	public byte[] reduceVideoSize(File file, VideoFormats fileFormat, ResizeResolution resolution)
-			throws VideoException, IOException {
-		String fileType = setAttributes(fileFormat, resolution);
-		return encodeVideo(IVFileUtils.copyToByteArray(file), fileType);
+	public List<Path> reduceVideoSize(Path source, List<Path> targets, List<VideoProfile> profiles)
+			throws VideoException {
+		if (targets.size() != profiles.size())
+			throw new IllegalArgumentException(
+					"Got " + targets.size() + " target files for " + profiles.size() + " profiles");
+		if (profiles.isEmpty())
+			return targets;
+		List<File> files = new ArrayList<>();
+		for (Path target : targets)
+			files.add(target.toFile());
+		try {
+			encodeVideo(source.toFile(), files, profiles);
+		} catch (VideoException e) {
+			for (Path target : targets) {
+				try {
+					Files.deleteIfExists(target);
+				} catch (IOException ignored) {
+					e.addSuppressed(ignored);
+				}
+			}
+			throw e;
+		}
+		return targets;
 	}
 
 	/**
-	 * This method helps in converting the video content to reduced size with lower
-	 * resolution
-	 * 
-	 * Encodes the video with default attributes thereby reducing the size of the
-	 * video with better quality and stores it in the user defined path .
+	 * This method packages the video file for adaptive streaming, writing
+	 * fixed length segments, a playlist or manifest, and for HLS a master
+	 * playlist listing one media playlist per rendition. Players can start
+	 * after downloading the first segment and switch between the renditions.
 	 * 
-	 * Maintains the best compressed quality
+	 * As for {@link #reduceVideoSize(Path, List, List)} the video is decoded
+	 * once and split between the renditions. Keyframes are forced at every
+	 * segment boundary so that all renditions switch at the same points. The
+	 * output formats of the profiles are not used, HLS segments are MPEG-TS and
+	 * DASH segments fragmented MP4. Existing files of the same names in the
+	 * directory are overwritten, files of a failed run are left in place.
 	 * 
-	 * @param file       -indicates the video file object to be compressed
-	 * @param fileFormat -to indicate the video type
-	 * @param resolution -Resolution of the output video
-	 * @param path       -location to store the output file
-	 * @return path location for the file stored
+	 * @param source          -video file to be packaged
+	 * @param directory       -directory receiving the segments and playlists,
+	 *                        created if missing
+	 * @param format          -adaptive streaming format
+	 * @param segmentDuration -length of the segments
+	 * @param renditions      -formats and encoding attributes of the renditions
+	 * @return - returns the path of the master playlist or manifest
 	 * @throws VideoException - throws exception if there is an issue with video
 	 *                        processing
-	 * @throws IOException    - throws exception if there is issue with file
 	 */
-	public String reduceVideoSizeAndSaveToAPath(File file, VideoFormats fileFormat, ResizeResolution resolution,
-			String path) throws VideoException, IOException {
-		String fileType = setAttributes(fileFormat, resolution);
-		byte[] data = encodeVideo(IVFileUtils.copyToByteArray(file), fileType);
-		String fileName = file.getName();
-		if (!fileName.contains(fileFormat.getType()))
-			fileName = fileName.substring(0, fileName.indexOf(".")) + "." + fileFormat.getType();
-		return createAndStoreNewFile(fileName, path, data);
-
+	public Path packageVideo(Path source, Path directory, StreamingFormats format, Duration segmentDuration,
+			List<VideoProfile> renditions) throws VideoException {
+		if (renditions.isEmpty())
+			throw new IllegalArgumentException("No renditions specified");
+		if (segmentDuration.isZero() || segmentDuration.isNegative())
+			throw new IllegalArgumentException("Invalid segment duration " + segmentDuration);
+		VideoFormats inputFormat = getInputFormat(renditions);
+		MultimediaInfo info = probeVideo(source.toFile());
+		if (info == null || info.getVideo() == null)
+			throw new VideoException("Error Occurred while packaging the video: no video stream in " + source);
+		boolean audio = info.getAudio() != null;
+		String seconds = FFmpegCommand.toSeconds(segmentDuration);
+		FFmpegCommand command = new FFmpegCommand().input(inputFormat, source.toAbsolutePath().toString())
+				.add("-filter_complex", createSplitFilter(renditions.size()));
+		StringBuilder streamMap = new StringBuilder();
+		for (int i = 0; i < renditions.size(); i++) {
+			command.add("-map", "[v" + i + "]");
+			// HLS variants carry their own audio, DASH renditions share one
+			if (audio && (format == StreamingFormats.HLS || i == 0))
+				command.add("-map", "0:a:0");
+			streamMap.append(i == 0 ? "" : " ").append("v:").append(i).append(audio ? ",a:" + i : "");
+		}
+		for (int i = 0; i < renditions.size(); i++) {
+			VideoProfile profile = clampToSource(renditions.get(i), info);
+			command.encodeVideo(profile, i).add("-force_key_frames:v:" + i, "expr:gte(t,n_forced*" + seconds + ")");
+			if (audio && (format == StreamingFormats.HLS || i == 0))
+				command.encodeAudio(profile, i);
+		}
+		if (format == StreamingFormats.HLS)
+			command.add("-f", format.getFormatName(), "-hls_time", seconds, "-hls_playlist_type", "vod",
+					"-hls_segment_filename", directory.resolve("stream_%v_%05d.ts").toString(), "-master_pl_name",
+					format.getManifestName(), "-var_stream_map", streamMap.toString(), "-y",
+					directory.resolve("stream_%v." + format.getType()).toString());
+		else
+			command.add("-f", format.getFormatName(), "-seg_duration", seconds, "-use_template", "1",
+					"-use_timeline", "1", "-adaptation_sets",
+					audio ? "id=0,streams=v id=1,streams=a" : "id=0,streams=v", "-y",
+					directory.resolve(format.getManifestName()).toString());
+		try {
+			Files.createDirectories(directory);
+			ffmpeg.run(command);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while packaging the video", e);
+		}
+		return directory.resolve(format.getManifestName());
 	}
 
 	/**
-	 * This method helps in converting the video content to reduced size with lower
-	 * resolution
-	 * 
-	 * Encodes the video with default attributes thereby reducing the size of the
-	 * video with better quality and stores it in the user defined path .
+	 * This method extracts the frame at the given position of the video as an
+	 * image, e.g. for a poster or thumbnail.
 	 * 
-	 * Maintains the best compressed quality
+	 * ffmpeg seeks to the keyframe before the position and decodes only the
+	 * frames up to it, scaling the frame in the same pass, so the time taken
+	 * does not depend on the position or length of the video.
 	 * 
-	 * @param fileData   -indicates the video file object byte array to be
-	 *                   compressed
-	 * @param fileName   - name of the file
-	 * @param fileFormat -to indicate the video type
-	 * @param resolution -Resolution of the output video
-	 * @param path       -location to store the output file
-	 * @return path location for the file stored
-	 * @throws VideoException - throws exception if there is an issue with video
-	 *                        processing
-	 * @throws IOException    - throws exception if there is issue with file
+	 * @param video      -video file to take the frame from
+	 * @param timestamp  -position of the frame in the video
+	 * @param resolution -Resolution of the image. Null keeps the video size
+	 * @param format     -format of the image
+	 * @return - returns the image
+	 * @throws VideoException - throws exception if the video cannot be read or
+	 *                        has no frame at the position
 	 */
-	public String reduceVideoSizeAndSaveToAPath(byte[] fileData, String fileName, VideoFormats fileFormat,
-			ResizeResolution resolution, String path) throws VideoException, IOException {
-		String fileType = setAttributes(fileFormat, resolution);
-		byte[] data = encodeVideo(fileData, fileType);
-		if (!fileName.contains(fileFormat.getType()))
-			fileName = fileName.substring(0, fileName.indexOf(".")) + "." + fileFormat.getType();
-		return createAndStoreNewFile(fileName, path, data);
-
+	public byte[] extractFrame(Path video, Duration timestamp, ResizeResolution resolution, ImageFormats format)
+			throws VideoException {
+		return extractFrame(video, timestamp, toSize(resolution), format);
 	}
 
 	/**
-	 * This method helps in converting the video content to reduced size with lower
-	 * resolution with user defined attributes
+	 * This method extracts the frame at the given position of the video as an
+	 * image of a custom size, see
+	 * {@link #extractFrame(Path, Duration, ResizeResolution, ImageFormats)}.
 	 * 
-	 * Encodes the video with custom attributes thereby reducing the size of the
-	 * video with better quality
-	 * 
-	 * Maintains the best compressed quality
+	 * @param video     -video file to take the frame from
+	 * @param timestamp -position of the frame in the video
+	 * @param size      -size(width x height) of the image. Null keeps the video
+	 *                  size
+	 * @param format    -format of the image
+	 * @return - returns the image
+	 * @throws VideoException - throws exception if the video cannot be read or
+	 *                        has no frame at the position
+	 */
+	public byte[] extractFrame(Path video, Duration timestamp, IVSize size, ImageFormats format)
+			throws VideoException {
+		FFmpegCommand command = new FFmpegCommand().inputAt(timestamp, video.toAbsolutePath().toString())
+				.add("-map", "0:v:0").outputImage(size, format, FFmpegCommand.STDOUT);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try {
+			ffmpeg.run(command, null, outputStream);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while extracting the frame", e);
+		}
+		if (outputStream.size() == 0)
+			throw new VideoException("No frame at " + timestamp + " in " + video);
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * This method extracts the frames at each of the given positions of the
+	 * video as images, e.g. for a set of thumbnails.
+	 * 
+	 * A single ffmpeg run opens the video once per position and seeks each of
+	 * them to the keyframe before the position, see
+	 * {@link #extractFrame(Path, Duration, ResizeResolution, ImageFormats)}.
+	 * 
+	 * @param video      -video file to take the frames from
+	 * @param timestamps -positions of the frames in the video
+	 * @param resolution -Resolution of the images. Null keeps the video size
+	 * @param format     -format of the images
+	 * @return - returns the images in the order of the positions
+	 * @throws VideoException - throws exception if the video cannot be read or
+	 *                        has no frame at one of the positions
+	 */
+	public List<byte[]> extractFrames(Path video, List<Duration> timestamps, ResizeResolution resolution,
+			ImageFormats format) throws VideoException {
+		return extractFrames(video, timestamps, toSize(resolution), format);
+	}
+
+	/**
+	 * This method extracts the frames at each of the given positions of the
+	 * video as images of a custom size, see
+	 * {@link #extractFrames(Path, List, ResizeResolution, ImageFormats)}.
+	 * 
+	 * @param video      -video file to take the frames from
+	 * @param timestamps -positions of the frames in the video
+	 * @param size       -size(width x height) of the images. Null keeps the
+	 *                   video size
+	 * @param format     -format of the images
+	 * @return - returns the images in the order of the positions
+	 * @throws VideoException - throws exception if the video cannot be read or
+	 *                        has no frame at one of the positions
+	 */
+	public List<byte[]> extractFrames(Path video, List<Duration> timestamps, IVSize size, ImageFormats format)
+			throws VideoException {
+		List<byte[]> frames = new ArrayList<>();
+		if (timestamps.isEmpty())
+			return frames;
+		long frameBytes = size == null ? 0 : size.getWidth() * (long) size.getHeight() * 3;
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(frameBytes * timestamps.size())) {
+			Path directory = reservation.createDirectory(IVConstants.FRAMES_DIRNAME);
+			FFmpegCommand command = new FFmpegCommand();
+			for (Duration timestamp : timestamps)
+				command.inputAt(timestamp, video.toAbsolutePath().toString());
+			List<Path> files = new ArrayList<>();
+			for (int i = 0; i < timestamps.size(); i++) {
+				Path file = directory.resolve("frame" + i + "." + format.getType());
+				command.add("-map", i + ":v:0").outputImage(size, format, file.toString());
+				files.add(file);
+			}
+			ffmpeg.run(command);
+			for (int i = 0; i < files.size(); i++) {
+				if (!Files.exists(files.get(i)) || Files.size(files.get(i)) == 0)
+					throw new VideoException("No frame at " + timestamps.get(i) + " in " + video);
+				frames.add(Files.readAllBytes(files.get(i)));
+			}
+			return frames;
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while extracting the frame", e);
+		}
+	}
+
+	/**
+	 * This method creates a storyboard of the video: frames sampled at a fixed
+	 * interval, tiled row by row into sprite sheets of the given number of
+	 * columns and rows, e.g. for the previews of a scrub bar.
+	 * 
+	 * The video is decoded once by a single ffmpeg run, which samples and scales
+	 * the frames in the same pass. The last sheet only holds the rows it needs.
+	 * 
+	 * @param video      -video file to take the frames from
+	 * @param interval   -time between two sampled frames
+	 * @param resolution -Resolution of each frame on the sheets
+	 * @param columns    -number of frames per row of a sheet
+	 * @param rows       -number of rows of a sheet
+	 * @param format     -format of the sheets
+	 * @return - returns the sheets and the position of every frame on them
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public IVStoryboard createStoryboard(Path video, Duration interval, ResizeResolution resolution, int columns,
+			int rows, ImageFormats format) throws VideoException {
+		return createStoryboard(video, interval, toSize(resolution), columns, rows, format);
+	}
+
+	/**
+	 * This method creates a storyboard of the video with frames of a custom
+	 * size, see
+	 * {@link #createStoryboard(Path, Duration, ResizeResolution, int, int, ImageFormats)}.
+	 * 
+	 * @param video    -video file to take the frames from
+	 * @param interval -time between two sampled frames
+	 * @param size     -size(width x height) of each frame on the sheets
+	 * @param columns  -number of frames per row of a sheet
+	 * @param rows     -number of rows of a sheet
+	 * @param format   -format of the sheets
+	 * @return - returns the sheets and the position of every frame on them
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public IVStoryboard createStoryboard(Path video, Duration interval, IVSize size, int columns, int rows,
+			ImageFormats format) throws VideoException {
+		if (interval.toMillis() <= 0)
+			throw new IllegalArgumentException("Invalid storyboard interval " + interval);
+		if (size == null || size.getWidth() <= 0 || size.getHeight() <= 0)
+			throw new IllegalArgumentException("Invalid storyboard frame size");
+		if (columns <= 0 || rows <= 0)
+			throw new IllegalArgumentException("Invalid storyboard layout " + columns + "x" + rows);
+		MultimediaInfo info = probeVideo(video.toFile());
+		if (info == null || info.getVideo() == null)
+			throw new VideoException("Error Occurred while creating the storyboard: no video stream in " + video);
+		// uncompressed frames, one per interval
+		long frameBytes = size.getWidth() * (long) size.getHeight() * 3;
+		try (IVScratchSpace.Reservation reservation = scratchSpace
+				.reserve(frameBytes * (info.getDuration() / interval.toMillis() + 1))) {
+			Path directory = reservation.createDirectory(IVConstants.FRAMES_DIRNAME);
+			ffmpeg.run(new FFmpegCommand().add("-i", video.toAbsolutePath().toString(), "-map", "0:v:0", "-vf",
+					"fps=1000/" + interval.toMillis() + ",scale=" + size.getWidth() + ":" + size.getHeight(),
+					"-c:v", "bmp", "-f", "image2", "-y", directory.resolve("frame%05d.bmp").toString()));
+			List<Path> frames = new ArrayList<>();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "frame*.bmp")) {
+				files.forEach(frames::add);
+			}
+			Collections.sort(frames);
+			return tileFrames(frames, interval, size, columns, rows, format);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while creating the storyboard", e);
+		}
+	}
+
+	/**
+	 * This method helps in converting the video to another format.
+	 * 
+	 * Helps in reducing size of video with lower resolution.
+	 * 
+	 * Encodes the video with default attributes thereby reducing the size of the
+	 * video with better quality.
+	 * 
+	 * Maintains the best compressed quality.
+	 * 
+	 * @param data         -indicates the video content to be compressed
+	 * @param inputFormat  -to indicate the format of input video
+	 * @param outputFormat -to indicate the format of output video
+	 * @param resolution   -Resolution of the output video
+	 * @return -byte stream object with compressed video data
+	 * @throws VideoException -throws exception when the data is incompatible for
+	 *                        the encoding
+	 */
+	public byte[] convertAndResizeVideo(byte[] data, VideoFormats inputFormat, VideoFormats outputFormat,
+			ResizeResolution resolution) throws VideoException {
+		return encodeVideo(data, createVideoProfile(inputFormat, resolution).outputFormat(outputFormat).build());
+	}
+
+	/**
+	 * This method is used for resizing using custom resolution but with remaining
+	 * attributes as default.
+	 * 
+	 * Encodes the video with default attributes thereby reducing the size of the
+	 * video with better quality.
+	 * 
+	 * Maintains the best compressed quality.
+	 * 
+	 * @param data       -indicates the video content to be compressed
+	 * @param fileFormat -to indicate the video type
+	 * @param resolution -Resolution(width x height) of the output video
+	 * @return -byte stream object with compressed video data
+	 * @throws VideoException -throws exception when the data is incompatible for
+	 *                        the encoding
+	 */
+	public byte[] reduceVideoSizeWithCustomRes(byte[] data, VideoFormats fileFormat, IVSize resolution)
+			throws VideoException {
+		VideoProfile.Builder profile = VideoProfile.builder(fileFormat);
+		if (resolution != null)
+			profile.size(resolution);
+		return encodeVideo(data, profile.build());
+	}
+
+	/**
+	 * This method helps in converting the video content to reduced size with lower
+	 * resolution.
+	 * 
+	 * Encodes the video with default attributes thereby reducing the size of the
+	 * video with better quality.
+	 * 
+	 * Maintains the best compressed quality.
+	 * 
+	 * @param file       -indicates the video file object to be compressed
+	 * @param fileFormat -to indicate the video type
+	 * @param resolution -Resolution of the output video
+	 * @return byte array object with encoded video
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 * @throws IOException    - throws exception if there is issue with file
+	 */
+	public byte[] reduceVideoSize(File file, VideoFormats fileFormat, ResizeResolution resolution)
+			throws VideoException, IOException {
+		return reduceVideoSize(file, createVideoProfile(fileFormat, resolution).build());
+	}
+
+	/**
+	 * This method helps in converting the video file with the settings of the
+	 * given profile.
+	 * 
+	 * @param file    -indicates the video file object to be compressed
+	 * @param profile -formats and encoding attributes of the output video
+	 * @return byte array object with encoded video
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 * @throws IOException    - throws exception if there is issue with file
+	 */
+	public byte[] reduceVideoSize(File file, VideoProfile profile) throws VideoException, IOException {
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(file.length())) {
+			Path target = reservation.createFile(IVConstants.TARGET_FILENAME, profile.getOutputFormat());
+			encodeVideo(file, target.toFile(), profile);
+			return Files.readAllBytes(target);
+		}
+	}
+
+	/**
+	 * This method helps in converting the video file to reduced size with lower
+	 * resolution and writes it to the target file.
+	 * 
+	 * ffmpeg reads the source and writes the target directly, so the video is
+	 * never held in memory and its size is not limited by the size of a byte
+	 * array. An existing target file is overwritten.
+	 * 
+	 * @param source     -video file to be compressed
+	 * @param target     -file receiving the compressed video
+	 * @param fileFormat -to indicate the video type
+	 * @param resolution -Resolution of the output video
+	 * @return - returns the path of the compressed video
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public Path reduceVideoSize(Path source, Path target, VideoFormats fileFormat, ResizeResolution resolution)
+			throws VideoException {
+		return reduceVideoSize(source, target, createVideoProfile(fileFormat, resolution).build());
+	}
+
+	/**
+	 * This method helps in converting the video file with the settings of the
+	 * given profile and writes it to the target file.
+	 * 
+	 * ffmpeg reads the source and writes the target directly, so the video is
+	 * never held in memory and its size is not limited by the size of a byte
+	 * array. An existing target file is overwritten.
+	 * 
+	 * @param source  -video file to be compressed
+	 * @param target  -file receiving the compressed video
+	 * @param profile -formats and encoding attributes of the output video
+	 * @return - returns the path of the compressed video
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public Path reduceVideoSize(Path source, Path target, VideoProfile profile) throws VideoException {
+		return reduceVideoSize(source, target, profile, null);
+	}
+
+	/**
+	 * Encodes the video file into the target file as
+	 * {@link #reduceVideoSize(Path, Path, VideoProfile)} does, as part of the job
+	 * of the monitor
+	 * 
+	 * @param source
+	 * @param target
+	 * @param profile
+	 * @param monitor - tracks and cancels the ffmpeg runs. Can be null
+	 * @return - returns the path of the compressed video
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private Path reduceVideoSize(Path source, Path target, VideoProfile profile, FFmpegMonitor monitor)
+			throws VideoException {
+		try {
+			encodeVideoFile(source, target, profile, monitor);
+		} catch (VideoException e) {
+			try {
+				Files.deleteIfExists(target);
+			} catch (IOException ignored) {
+				e.addSuppressed(ignored);
+			}
+			throw e;
+		}
+		return target;
+	}
+
+	/**
+	 * This method helps in converting the video read from the input stream with
+	 * the settings of the given profile and writes it to the output stream.
+	 * 
+	 * With {@link TransferMode#PIPES} the streams are connected to ffmpeg
+	 * directly and the video never touches the disk. Otherwise the video is
+	 * staged in temp files. Neither stream is closed.
+	 * 
+	 * @param in      -video stream to be compressed
+	 * @param out     -stream receiving the compressed video
+	 * @param profile -formats and encoding attributes of the output video
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public void reduceVideoSize(InputStream in, OutputStream out, VideoProfile profile) throws VideoException {
+		if (profile.getTransferMode() == TransferMode.PIPES) {
+			try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_ENCODE)) {
+				timer.format(profile.getOutputFormat().getType());
+				try {
+					encodeVideo(in, out, profile, null);
+				} catch (VideoException e) {
+					timer.exitCode(FFmpegException.findExitCode(e));
+					throw e;
+				}
+				timer.exitCode(0).succeeded();
+			}
+			return;
+		}
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(0)) {
+			Path source = reservation.createFile(IVConstants.SOURCE_FILENAME, profile.getInputFormat());
+			Path target = reservation.createFile(IVConstants.TARGET_FILENAME, profile.getOutputFormat());
+			// the size of a stream is only known once it is staged
+			long size;
+			try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_WRITE)) {
+				size = Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+				timer.format(profile.getInputFormat().getType()).bytesOut(size).succeeded();
+			}
+			reservation.extend(size * 2);
+			encodeVideoFile(source, target, profile, null);
+			try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_READ)) {
+				timer.format(profile.getOutputFormat().getType()).bytesIn(Files.copy(target, out)).succeeded();
+			}
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
+	}
+
+	/**
+	 * This method helps in converting the video content to reduced size with lower
+	 * resolution
+	 * 
+	 * Encodes the video with default attributes thereby reducing the size of the
+	 * video with better quality and stores it in the user defined path .
+	 * 
+	 * Maintains the best compressed quality
+	 * 
+	 * @param file       -indicates the video file object to be compressed
+	 * @param fileFormat -to indicate the video type
+	 * @param resolution -Resolution of the output video
+	 * @param path       -location to store the output file
+	 * @return path location for the file stored
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 * @throws IOException    - throws exception if there is issue with file
+	 */
+	public String reduceVideoSizeAndSaveToAPath(File file, VideoFormats fileFormat, ResizeResolution resolution,
+			String path) throws VideoException, IOException {
+		String fileName = file.getName();
+		if (!fileName.contains(fileFormat.getType()))
+			fileName = fileName.substring(0, fileName.indexOf(".")) + "." + fileFormat.getType();
+		Path target = createNewFilePath(fileName, path);
+		reduceVideoSize(file.toPath(), target, fileFormat, resolution);
+		return "File is saved in path::" + target.toAbsolutePath();
+
+	}
+
+	/**
+	 * This method helps in converting the video content to reduced size with lower
+	 * resolution
+	 * 
+	 * Encodes the video with default attributes thereby reducing the size of the
+	 * video with better quality and stores it in the user defined path .
+	 * 
+	 * Maintains the best compressed quality
+	 * 
+	 * @param fileData   -indicates the video file object byte array to be
+	 *                   compressed
+	 * @param fileName   - name of the file
+	 * @param fileFormat -to indicate the video type
+	 * @param resolution -Resolution of the output video
+	 * @param path       -location to store the output file
+	 * @return path location for the file stored
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 * @throws IOException    - throws exception if there is issue with file
+	 */
+	public String reduceVideoSizeAndSaveToAPath(byte[] fileData, String fileName, VideoFormats fileFormat,
+			ResizeResolution resolution, String path) throws VideoException, IOException {
+		if (!fileName.contains(fileFormat.getType()))
+			fileName = fileName.substring(0, fileName.indexOf(".")) + "." + fileFormat.getType();
+		Path target = createNewFilePath(fileName, path);
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(fileData.length)) {
+			Path source = reservation.createFile(IVConstants.SOURCE_FILENAME, fileFormat);
+			writeVideo(source, fileData, fileFormat);
+			reduceVideoSize(source, target, fileFormat, resolution);
+		}
+		return "File is saved in path::" + target.toAbsolutePath();
+
+	}
+
+	/**
+	 * This method helps in converting the video content to reduced size with lower
+	 * resolution with user defined attributes
+	 * 
+	 * Encodes the video with custom attributes thereby reducing the size of the
+	 * video with better quality
+	 * 
+	 * Maintains the best compressed quality
+	 * 
+	 * @param data           indicates the video content to be compressed
+	 * @param fileFormat     to indicate the video type
+	 * @param audioAttribute to customize audio encoding
+	 * @param videoAttribute to customize video encoding
+	 * @return - returns byte array as response
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public byte[] encodeVideoWithAttributes(byte[] data, VideoFormats fileFormat, IVAudioAttributes audioAttribute,
+			IVVideoAttributes videoAttribute) throws VideoException {
+		return encodeVideo(data, VideoProfile.builder(fileFormat).videoAttributes(videoAttribute)
+				.audioAttributes(audioAttribute).build());
+	}
+
+	/**
+	 * This method is used to convert the video from existing format to another
+	 * format without compressing the data
+	 * 
+	 * When the output format can carry the codecs of the source, the streams are
+	 * copied into the new container instead of being re-encoded, which is many
+	 * times faster. The streams are probed from a temp file, so with
+	 * {@link TransferMode#PIPES} the video is always re-encoded.
+	 * 
+	 * @param data         - data that is to be converted
+	 * @param inputFormat  - video format the data is to be converted
+	 * @param outputFormat - video format the data is to be converted
+	 * @return - returns byte array as response
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	public byte[] convertVideoFormat(byte[] data, VideoFormats inputFormat, VideoFormats outputFormat)
+			throws VideoException {
+		return encodeVideo(data, VideoProfile.conversion(inputFormat, outputFormat));
+	}
+
+	/**
+	 * This method helps in converting the video content to reduced size with lower
+	 * resolution without blocking the caller.
+	 * 
+	 * The encode runs on the worker pool of this compressor, which caps the number
+	 * of ffmpeg processes running at once. The future completes exceptionally
+	 * with a {@link VideoException} if the encode fails, or with a
+	 * {@link java.util.concurrent.RejectedExecutionException} if the pool queue
+	 * is full.
+	 * 
+	 * @param data       -indicates the video content to be compressed
+	 * @param fileFormat -to indicate the video type
+	 * @param resolution -Resolution of the output video
+	 * @return -future byte stream object with compressed video data
+	 */
+	public CompletableFuture<byte[]> reduceVideoSizeAsync(byte[] data, VideoFormats fileFormat,
+			ResizeResolution resolution) {
+		return reduceVideoSizeAsync(data, createVideoProfile(fileFormat, resolution).build());
+	}
+
+	/**
+	 * This method helps in converting the video content with the settings of the
+	 * given profile without blocking the caller.
+	 * 
+	 * The encode runs on the worker pool of this compressor, which caps the number
+	 * of ffmpeg processes running at once. The future completes exceptionally
+	 * with a {@link VideoException} if the encode fails, or with a
+	 * {@link java.util.concurrent.RejectedExecutionException} if the pool queue
+	 * is full.
+	 * 
+	 * @param data    -indicates the video content to be compressed
+	 * @param profile -formats and encoding attributes of the output video
+	 * @return -future byte stream object with compressed video data
+	 */
+	public CompletableFuture<byte[]> reduceVideoSizeAsync(byte[] data, VideoProfile profile) {
+		return videoPool.submit(() -> encodeVideo(data, profile));
+	}
+
+	/**
+	 * This method helps in converting the video file with the settings of the
+	 * given profile into the target file without blocking the caller.
+	 * 
+	 * The encode runs on the worker pool of this compressor, see
+	 * {@link #reduceVideoSizeAsync(byte[], VideoProfile)}, and streams between
+	 * the files as {@link #reduceVideoSize(Path, Path, VideoProfile)} does.
+	 * 
+	 * @param source  -video file to be compressed
+	 * @param target  -file receiving the compressed video
+	 * @param profile -formats and encoding attributes of the output video
+	 * @return - returns the future path of the compressed video
+	 */
+	public CompletableFuture<Path> reduceVideoSizeAsync(Path source, Path target, VideoProfile profile) {
+		return videoPool.submit(() -> reduceVideoSize(source, target, profile));
+	}
+
+	/**
+	 * This method helps in converting the video content with the settings of the
+	 * given profile as a job that reports its progress and can be cancelled.
+	 * 
+	 * The job runs on the worker pool of this compressor, see
+	 * {@link #reduceVideoSizeAsync(byte[], VideoProfile)}. Cancelling the job, or
+	 * its result, terminates the running ffmpeg processes. The result completes
+	 * exceptionally with a {@link TimeoutException} once the job has run longer
+	 * than the timeout, which terminates the processes as well.
+	 * 
+	 * @param data     -indicates the video content to be compressed
+	 * @param profile  -formats and encoding attributes of the output video
+	 * @param listener -receives the progress of the job. Can be null
+	 * @param timeout  -maximum run time of the job, not counting the time waiting
+	 *                 for a worker. Null runs the job without time limit
+	 * @return - returns the handle of the job
+	 */
+	public IVVideoJob<byte[]> submitVideoJob(byte[] data, VideoProfile profile, IVProgressListener listener,
+			Duration timeout) {
+		return submitVideoJob(listener, timeout, monitor -> encodeVideo(data, profile, monitor));
+	}
+
+	/**
+	 * This method helps in converting the video file with the settings of the
+	 * given profile into the target file as a job that reports its progress and
+	 * can be cancelled.
+	 * 
+	 * The job runs as {@link #submitVideoJob(byte[], VideoProfile,
+	 * IVProgressListener, Duration)} does and streams between the files as
+	 * {@link #reduceVideoSize(Path, Path, VideoProfile)} does. The target file is
+	 * deleted if the job fails or is cancelled.
+	 * 
+	 * @param source   -video file to be compressed
+	 * @param target   -file receiving the compressed video
+	 * @param profile  -formats and encoding attributes of the output video
+	 * @param listener -receives the progress of the job. Can be null
+	 * @param timeout  -maximum run time of the job, not counting the time waiting
+	 *                 for a worker. Null runs the job without time limit
+	 * @return - returns the handle of the job
+	 */
+	public IVVideoJob<Path> submitVideoJob(Path source, Path target, VideoProfile profile,
+			IVProgressListener listener, Duration timeout) {
+		return submitVideoJob(listener, timeout, monitor -> reduceVideoSize(source, target, profile, monitor));
+	}
+
+	/**
+	 * This method is used to convert the video from existing format to another
+	 * format without blocking the caller.
+	 * 
+	 * The conversion runs on the worker pool of this compressor, see
+	 * {@link #reduceVideoSizeAsync(byte[], VideoProfile)}.
+	 * 
+	 * @param data         - data that is to be converted
+	 * @param inputFormat  - video format the data is to be converted
+	 * @param outputFormat - video format the data is to be converted
+	 * @return - returns future byte array as response
+	 */
+	public CompletableFuture<byte[]> convertVideoFormatAsync(byte[] data, VideoFormats inputFormat,
+			VideoFormats outputFormat) {
+		return reduceVideoSizeAsync(data, VideoProfile.conversion(inputFormat, outputFormat));
+	}
+
+	/**
+	 * Submits the task to the worker pool as a job, starting its timer once a
+	 * worker picks it up
+	 * 
+	 * @param listener - receives the progress of the job. Can be null
+	 * @param timeout  - maximum run time of the job. Can be null
+	 * @param task     - encode running the ffmpeg processes of the job
+	 * @return - returns the handle of the job
+	 */
+	private <T> IVVideoJob<T> submitVideoJob(IVProgressListener listener, Duration timeout, VideoTask<T> task) {
+		if (timeout != null && (timeout.isNegative() || timeout.isZero()))
+			throw new IllegalArgumentException("Invalid job timeout " + timeout);
+		FFmpegMonitor monitor = new FFmpegMonitor(listener);
+		CompletableFuture<T> result = new CompletableFuture<>();
+		// however the job ends early, its processes are no longer needed
+		result.whenComplete((value, error) -> {
+			if (error != null)
+				monitor.cancel();
+		});
+		videoPool.submit(() -> {
+			if (result.isDone())
+				return null;
+			ScheduledFuture<?> timer = null;
+			if (timeout != null)
+				timer = JobTimer.INSTANCE.schedule(() -> result.completeExceptionally(
+						new TimeoutException("Video job timed out after " + timeout)), timeout.toNanos(),
+						TimeUnit.NANOSECONDS);
+			try {
+				result.complete(task.run(monitor));
+			} finally {
+				if (timer != null)
+					timer.cancel(false);
+			}
+			return null;
+		}).whenComplete((value, error) -> {
+			if (error != null)
+				result.completeExceptionally(error);
+		});
+		return new IVVideoJob<>(result, monitor);
+	}
+
+	/**
+	 * Creates a video profile with the default attributes
+	 * 
+	 * @param fileFormat
+	 * @param resolution - resolution of the output video. Null keeps the default
+	 * @return - returns the profile builder
+	 */
+	private VideoProfile.Builder createVideoProfile(VideoFormats fileFormat, ResizeResolution resolution) {
+		VideoProfile.Builder profile = VideoProfile.builder(fileFormat);
+		if (resolution != null)
+			profile.resolution(resolution);
+		return profile;
+	}
+
+	/**
+	 * This method encodes the video stream with the attributes of the profile and
+	 * reduces the resolution and size of the file.
+	 * 
+	 * With {@link TransferMode#PIPES} the content is streamed through ffmpeg
+	 * without temp files.
+	 * 
+	 * @param data
+	 * @param profile
+	 * @return - returns byte array as response
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private byte[] encodeVideo(byte[] data, VideoProfile profile) throws VideoException {
+		return encodeVideo(data, profile, null);
+	}
+
+	/**
+	 * Encodes the video content as {@link #encodeVideo(byte[], VideoProfile)}
+	 * does, as part of the job of the monitor
+	 * 
+	 * @param data
+	 * @param profile
+	 * @param monitor - tracks and cancels the ffmpeg runs. Can be null
+	 * @return - returns byte array as response
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private byte[] encodeVideo(byte[] data, VideoProfile profile, FFmpegMonitor monitor) throws VideoException {
+		// jobs are not shared, as they would share the cancellation of another job
+		return computeShared(getCacheKey(data, profile), monitor == null,
+				() -> encodeVideoContent(data, profile, monitor));
+	}
+
+	/**
+	 * Encodes the video content, bypassing the result cache
+	 * 
+	 * @param data
+	 * @param profile
+	 * @param monitor - tracks and cancels the ffmpeg runs. Can be null
+	 * @return - returns byte array as response
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private byte[] encodeVideoContent(byte[] data, VideoProfile profile, FFmpegMonitor monitor)
+			throws VideoException {
+		if (profile.getTransferMode() == TransferMode.PIPES) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 2);
+			try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_ENCODE)) {
+				timer.format(profile.getOutputFormat().getType()).bytesIn(data.length);
+				try {
+					encodeVideo(new ByteArrayInputStream(data), outputStream, profile, monitor);
+				} catch (VideoException e) {
+					timer.exitCode(FFmpegException.findExitCode(e));
+					throw e;
+				}
+				timer.bytesOut(outputStream.size()).exitCode(0).succeeded();
+			}
+			return outputStream.toByteArray();
+		}
+		// the output is assumed to be no larger than the source
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(data.length * 2L)) {
+			Path source = reservation.createFile(IVConstants.SOURCE_FILENAME, profile.getInputFormat());
+			Path target = reservation.createFile(IVConstants.TARGET_FILENAME, profile.getOutputFormat());
+			writeVideo(source, data, profile.getInputFormat());
+			encodeVideoFile(source, target, profile, monitor);
+			return readVideo(target, profile.getOutputFormat());
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
+	}
+
+	/**
+	 * Writes the video content to a temp file
+	 * 
+	 * @param file
+	 * @param data
+	 * @param format - format of the video
+	 * @throws IOException - throws exception if the file cannot be written
+	 */
+	private void writeVideo(Path file, byte[] data, VideoFormats format) throws IOException {
+		try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_WRITE)) {
+			Files.write(file, data);
+			timer.format(format.getType()).bytesOut(data.length).succeeded();
+		}
+	}
+
+	/**
+	 * Reads the encoded video back from its temp file
+	 * 
+	 * @param file
+	 * @param format - format of the video
+	 * @return - returns the content of the file
+	 * @throws IOException - throws exception if the file cannot be read
+	 */
+	private byte[] readVideo(Path file, VideoFormats format) throws IOException {
+		try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_READ)) {
+			byte[] data = Files.readAllBytes(file);
+			timer.format(format.getType()).bytesIn(data.length).succeeded();
+			return data;
+		}
+	}
+
+	/**
+	 * Encodes the source video file into the target file as
+	 * {@link #encodeVideo(File, File, VideoProfile, FFmpegMonitor)} does,
+	 * measured as one stage
+	 * 
+	 * @param source
+	 * @param target
+	 * @param profile
+	 * @param monitor - tracks and cancels the ffmpeg runs. Can be null
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private void encodeVideoFile(Path source, Path target, VideoProfile profile, FFmpegMonitor monitor)
+			throws VideoException {
+		try (IVStageTimer timer = startStage(ProcessingStage.VIDEO_ENCODE)) {
+			timer.format(profile.getOutputFormat().getType()).bytesIn(source.toFile().length());
+			try {
+				encodeVideo(source.toFile(), target.toFile(), profile, monitor);
+			} catch (VideoException e) {
+				timer.exitCode(FFmpegException.findExitCode(e));
+				throw e;
+			}
+			timer.bytesOut(target.toFile().length()).exitCode(0).succeeded();
+		}
+	}
+
+	/**
+	 * Encodes the source video file into the target file with the attributes of
+	 * the profile.
+	 * 
+	 * Conversions copy the streams if the output format can carry them. With
+	 * {@link ReencodePolicy#NEVER_INCREASE} the attributes are capped at the
+	 * source values, and a source within the limits of the profile is copied or
+	 * remuxed instead of encoded.
+	 * 
+	 * @param source
+	 * @param target
+	 * @param profile
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private void encodeVideo(File source, File target, VideoProfile profile) throws VideoException {
+		encodeVideo(source, target, profile, null);
+	}
+
+	/**
+	 * Encodes the source video file into the target file as
+	 * {@link #encodeVideo(File, File, VideoProfile)} does, as part of the job of
+	 * the monitor
+	 * 
+	 * @param source
+	 * @param target
+	 * @param profile
+	 * @param monitor - tracks and cancels the ffmpeg runs. Can be null
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private void encodeVideo(File source, File target, VideoProfile profile, FFmpegMonitor monitor)
+			throws VideoException {
+		if (profile.isConversion()) {
+			MultimediaInfo info = probeVideo(source);
+			if (info != null && remuxVideo(source, target, profile, info, monitor))
+				return;
+		} else if (profile.getReencodePolicy() == ReencodePolicy.NEVER_INCREASE || profile.getParallelSegments() > 1) {
+			MultimediaInfo info = probeVideo(source);
+			if (info != null && profile.getReencodePolicy() == ReencodePolicy.NEVER_INCREASE) {
+				if (IVVideoUtils.isWithinProfile(info, profile)) {
+					if (profile.getInputFormat() == profile.getOutputFormat()) {
+						copyVideo(source, target);
+						return;
+					}
+					if (remuxVideo(source, target, profile, info, monitor))
+						return;
+				}
+				profile = IVVideoUtils.clampToSource(profile, info);
+			}
+			int segments = info == null ? 1 : getSegmentCount(profile, info);
+			if (segments > 1) {
+				if (monitor != null)
+					monitor.setTotal(Duration.ofMillis(info.getDuration()));
+				encodeVideoInSegments(source, target, profile, info.getDuration() / segments, monitor);
+				return;
+			}
+		}
+		FFmpegCommand command = new FFmpegCommand().input(profile.getInputFormat(), source.getAbsolutePath())
+				.encode(profile).output(profile.getOutputFormat(), target.getAbsolutePath());
+		try {
+			ffmpeg.run(command, monitor);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
+	}
+
+	/**
+	 * Copies the streams of the source into the container of the output format,
+	 * if the container can carry their codecs
+	 * 
+	 * @param source
+	 * @param target
+	 * @param profile
+	 * @param info    - probed attributes of the source
+	 * @param monitor - tracks and cancels the ffmpeg run. Can be null
+	 * @return - returns false if the video has to be re-encoded
+	 */
+	private boolean remuxVideo(File source, File target, VideoProfile profile, MultimediaInfo info,
+			FFmpegMonitor monitor) {
+		String videoCodec = info.getVideo() == null ? null : info.getVideo().getDecoder();
+		String audioCodec = info.getAudio() == null ? null : info.getAudio().getDecoder();
+		if (!ContainerCodecs.canCarry(profile.getOutputFormat(), videoCodec, audioCodec))
+			return false;
+		FFmpegCommand command = new FFmpegCommand().input(profile.getInputFormat(), source.getAbsolutePath())
+				.copyStreams().output(profile.getOutputFormat(), target.getAbsolutePath());
+		try {
+			ffmpeg.run(command, monitor);
+			return true;
+		} catch (IOException e) {
+			// streams the table lets through can still be rejected by the muxer
+			return false;
+		}
+	}
+
+	/**
+	 * Encodes the source video file into one target file per profile, decoding
+	 * the source once and splitting its frames between the encodes
+	 * 
+	 * @param source
+	 * @param targets
+	 * @param profiles - profiles sharing the same input format
+	 * @throws VideoException - throws exception if there is an issue with video
+	 *                        processing
+	 */
+	private void encodeVideo(File source, List<File> targets, List<VideoProfile> profiles) throws VideoException {
+		VideoFormats inputFormat = getInputFormat(profiles);
+		MultimediaInfo info = null;
+		for (VideoProfile profile : profiles) {
+			if (profile.getReencodePolicy() == ReencodePolicy.NEVER_INCREASE && info == null)
+				info = probeVideo(source);
+		}
+		FFmpegCommand command = new FFmpegCommand().input(inputFormat, source.getAbsolutePath())
+				.add("-filter_complex", createSplitFilter(profiles.size()));
+		for (int i = 0; i < profiles.size(); i++) {
+			VideoProfile profile = clampToSource(profiles.get(i), info);
+			command.add("-map", "[v" + i + "]", "-map", "0:a?").encode(profile).output(profile.getOutputFormat(),
+					targets.get(i).getAbsolutePath());
+		}
+		try {
+			ffmpeg.run(command);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
+	}
+
+	/**
+	 * Draws the frames row by row onto sheets of the given layout
+	 * 
+	 * @param frames   - frame files in the order of their position in the video
+	 * @param interval - time between two frames
+	 * @param size     - size of each frame
+	 * @param columns
+	 * @param rows
+	 * @param format   - format of the sheets
+	 * @return - returns the storyboard
+	 * @throws IOException - throws exception if a frame cannot be read or a sheet
+	 *                     cannot be written
+	 */
+	private IVStoryboard tileFrames(List<Path> frames, Duration interval, IVSize size, int columns, int rows,
+			ImageFormats format) throws IOException {
+		int perSheet = columns * rows;
+		List<byte[]> sheets = new ArrayList<>();
+		List<IVStoryboard.Tile> tiles = new ArrayList<>();
+		for (int first = 0; first < frames.size(); first += perSheet) {
+			int count = Math.min(perSheet, frames.size() - first);
+			int sheetRows = (count + columns - 1) / columns;
+			BufferedImage sheet = new BufferedImage(size.getWidth() * columns, size.getHeight() * sheetRows,
+					BufferedImage.TYPE_INT_RGB);
+			Graphics2D graphics = sheet.createGraphics();
+			try {
+				for (int i = 0; i < count; i++) {
+					int x = i % columns * size.getWidth();
+					int y = i / columns * size.getHeight();
+					graphics.drawImage(ImageIO.read(frames.get(first + i).toFile()), x, y, null);
+					Duration start = interval.multipliedBy(first + (long) i);
+					tiles.add(new IVStoryboard.Tile(start, start.plus(interval), sheets.size(), x, y, size.getWidth(),
+							size.getHeight()));
+				}
+			} finally {
+				graphics.dispose();
+			}
+			sheets.add(encodeImage(format.getType(), sheet));
+		}
+		return new IVStoryboard(format, sheets, tiles);
+	}
+
+	/**
+	 * @param resolution
+	 * @return - returns the size of the resolution, or null if there is none
+	 */
+	private static IVSize toSize(ResizeResolution resolution) {
+		return resolution == null ? null : new IVSize(resolution.getWidth(), resolution.getHeight());
+	}
+
+	/**
+	 * @param profiles
+	 * @return - returns the input format shared by the profiles
+	 */
+	private static VideoFormats getInputFormat(List<VideoProfile> profiles) {
+		VideoFormats inputFormat = profiles.get(0).getInputFormat();
+		for (VideoProfile profile : profiles) {
+			if (profile.getInputFormat() != inputFormat)
+				throw new IllegalArgumentException("Profiles read different input formats " + inputFormat + " and "
+						+ profile.getInputFormat());
+		}
+		return inputFormat;
+	}
+
+	/**
+	 * @param renditions
+	 * @return - returns the filter splitting the decoded video into the outputs
+	 *         [v0], [v1]...
+	 */
+	private static String createSplitFilter(int renditions) {
+		StringBuilder split = new StringBuilder("[0:v]split=").append(renditions);
+		for (int i = 0; i < renditions; i++)
+			split.append("[v").append(i).append(']');
+		return split.toString();
+	}
+
+	/**
+	 * Caps the attributes of the profile at the source values, if its policy
+	 * asks for it
+	 * 
+	 * @param profile
+	 * @param info    - probed attributes of the source. Can be null
+	 * @return - returns the profile to encode with
+	 */
+	private static VideoProfile clampToSource(VideoProfile profile, MultimediaInfo info) {
+		if (info == null || profile.getReencodePolicy() != ReencodePolicy.NEVER_INCREASE)
+			return profile;
+		return IVVideoUtils.clampToSource(profile, info);
+	}
+
+	/**
+	 * Limits the number of segments of the profile so that every segment is at
+	 * least {@link #MIN_SEGMENT_MILLIS} long
+	 * 
+	 * @param profile
+	 * @param info    - probed attributes of the source
+	 * @return - returns the number of segments to encode in parallel
+	 */
+	private static int getSegmentCount(VideoProfile profile, MultimediaInfo info) {
+		if (info.getVideo() == null)
+			return 1;
+		return (int) Math.min(profile.getParallelSegments(), info.getDuration() / MIN_SEGMENT_MILLIS);
+	}
+
+	/**
+	 * Encodes the video in segments running in parallel on the segment pool.
 	 * 
-	 * @param data           indicates the video content to be compressed
-	 * @param fileFormat     to indicate the video type
-	 * @param audioAttribute to customize audio encoding
-	 * @param videoAttribute to customize video encoding
-	 * @return - returns byte array as response
+	 * The video stream is split at the keyframes following every multiple of
+	 * the segment length, without re-encoding. The segments are encoded
+	 * separately and joined with the concat demuxer, while the audio is encoded
+	 * once from the source in the same pass.
+	 * 
+	 * @param source
+	 * @param target
+	 * @param profile
+	 * @param segmentMillis - length of the segments
+	 * @param monitor       - tracks and cancels the ffmpeg runs. Only the encodes
+	 *                      of the segments count towards the progress. Can be
+	 *                      null
 	 * @throws VideoException - throws exception if there is an issue with video
 	 *                        processing
 	 */
-	public byte[] encodeVideoWithAttributes(byte[] data, VideoFormats fileFormat, IVAudioAttributes audioAttribute,
-			IVVideoAttributes videoAttribute) throws VideoException {
-		String filetype = fileFormat.getType();
-		setAudioAndVideoAttributes(filetype, audioAttribute, videoAttribute);
-		return encodeVideo(data, filetype);
+	private void encodeVideoInSegments(File source, File target, VideoProfile profile, long segmentMillis,
+			FFmpegMonitor monitor) throws VideoException {
+		FFmpegMonitor copies = monitor == null ? null : monitor.untracked();
+		// the segments are cancelled together when one fails, before their files are deleted
+		FFmpegMonitor segments = monitor != null ? monitor.child() : new FFmpegMonitor(null);
+		// the split copies the video once, the encoded segments are smaller again
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(source.length() * 2)) {
+			Path directory = reservation.createDirectory(IVConstants.SEGMENTS_DIRNAME);
+			ffmpeg.run(new FFmpegCommand().input(profile.getInputFormat(), source.getAbsolutePath())
+					.add("-map", "0:v:0", "-c", "copy", "-f", "segment", "-segment_time",
+							FFmpegCommand.toSeconds(Duration.ofMillis(segmentMillis)), "-reset_timestamps", "1",
+							"-segment_format", VideoFormats.MKV.getFormatName())
+					.add(directory.resolve("chunk%03d." + VideoFormats.MKV.getType()).toString()), copies);
+			List<Path> chunks = new ArrayList<>();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "chunk*")) {
+				files.forEach(chunks::add);
+			}
+			Collections.sort(chunks);
+			List<CompletableFuture<Path>> encodes = new ArrayList<>();
+			for (Path chunk : chunks) {
+				Path encoded = directory.resolve("encoded-" + chunk.getFileName());
+				FFmpegCommand command = new FFmpegCommand().input(VideoFormats.MKV, chunk.toString())
+						.encodeVideo(profile).add("-an").output(VideoFormats.MKV, encoded.toString());
+				encodes.add(segmentPool.submit(() -> {
+					ffmpeg.run(command, segments);
+					return encoded;
+				}));
+			}
+			StringBuilder list = new StringBuilder();
+			for (CompletableFuture<Path> encode : encodes)
+				list.append("file '").append(getSegment(encode, encodes, segments).toString().replace("'", "'\\''"))
+						.append("'\n");
+			Path listFile = directory.resolve("segments.txt");
+			Files.write(listFile, list.toString().getBytes(StandardCharsets.UTF_8));
+			ffmpeg.run(new FFmpegCommand().add("-f", "concat", "-safe", "0", "-i", listFile.toString())
+					.input(profile.getInputFormat(), source.getAbsolutePath())
+					.add("-map", "0:v", "-map", "1:a?", "-c:v", "copy").encodeAudio(profile)
+					.output(profile.getOutputFormat(), target.getAbsolutePath()), copies);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
 	}
 
 	/**
-	 * This method is used to convert the video from existing format to another
-	 * format without compressing the data
+	 * Waits for the encode of one segment, cancelling the others if it fails
 	 * 
-	 * @param data         - data that is to be converted
-	 * @param inputFormat  - video format the data is to be converted
-	 * @param outputFormat - video format the data is to be converted
-	 * @return - returns byte array as response
+	 * @param encode
+	 * @param encodes  - encodes of all segments
+	 * @param segments - monitor of the encodes of the segments
+	 * @return - returns the encoded segment
+	 * @throws IOException - throws exception if the segment cannot be encoded
+	 */
+	private static Path getSegment(CompletableFuture<Path> encode, List<CompletableFuture<Path>> encodes,
+			FFmpegMonitor segments) throws IOException {
+		try {
+			return encode.get();
+		} catch (InterruptedException e) {
+			cancelSegments(encodes, segments);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while encoding the video segments");
+		} catch (ExecutionException e) {
+			cancelSegments(encodes, segments);
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Cancels the encodes of the segments and waits until their ffmpeg processes
+	 * are gone, so that none of them writes to the segments directory once it is
+	 * deleted
+	 * 
+	 * @param encodes  - encodes of all segments
+	 * @param segments - monitor of the encodes of the segments
+	 */
+	private static void cancelSegments(List<CompletableFuture<Path>> encodes, FFmpegMonitor segments) {
+		segments.cancel();
+		// queued encodes are skipped, the ones picked up meanwhile fail before starting ffmpeg
+		encodes.forEach(pending -> pending.cancel(false));
+		segments.awaitRuns();
+	}
+
+	/**
+	 * Reads the codecs and attributes of the source video
+	 * 
+	 * @param source
+	 * @return - returns the attributes, or null if ffmpeg cannot read the source
+	 */
+	private MultimediaInfo probeVideo(File source) {
+		try {
+			return new MultimediaObject(source, locator).getInfo();
+		} catch (EncoderException e) {
+			// let the encode report the broken source
+			return null;
+		}
+	}
+
+	/**
+	 * Copies the source unchanged into the target
+	 * 
+	 * @param source
+	 * @param target
+	 * @throws VideoException - throws exception if the file cannot be copied
+	 */
+	private void copyVideo(File source, File target) throws VideoException {
+		try {
+			Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
+	}
+
+	/**
+	 * Encodes the video read from the input stream into the output stream with
+	 * the attributes of the profile, piping both through ffmpeg
+	 * 
+	 * @param in
+	 * @param out
+	 * @param profile
+	 * @param monitor - tracks and cancels the ffmpeg run. Can be null
 	 * @throws VideoException - throws exception if there is an issue with video
 	 *                        processing
 	 */
-	public byte[] convertVideoFormat(byte[] data, VideoFormats inputFormat, VideoFormats outputFormat)
+	private void encodeVideo(InputStream in, OutputStream out, VideoProfile profile, FFmpegMonitor monitor)
 			throws VideoException {
-		String filetype = inputFormat.getType();
-		AudioAttributes audioAttr = new AudioAttributes();
-		VideoAttributes videoAttr = new VideoAttributes();
-		encodingAttributes.setInputFormat(inputFormat.getType());
-		encodingAttributes.setOutputFormat(outputFormat.getType());
-		encodingAttributes.setAudioAttributes(audioAttr);
-		encodingAttributes.setVideoAttributes(videoAttr);
-		return encodeVideo(data, filetype);
+		FFmpegCommand command = new FFmpegCommand().input(profile.getInputFormat(), FFmpegCommand.STDIN)
+				.encode(profile).output(profile.getOutputFormat(), FFmpegCommand.STDOUT);
+		try {
+			ffmpeg.run(command, in, out, monitor);
+		} catch (IOException e) {
+			throw new VideoException("Error Occurred while resizing the video", e);
+		}
 	}
 
 	/**
-	 * Method to set the user defined Audio and Video Attributes for encoding
+	 * Rescales the images to lower resolution.
 	 * 
-	 * @param fileFormat
-	 * @param audioAttribute
-	 * @param videoAttribute
-	 */
-	private void setAudioAndVideoAttributes(String fileFormat, IVAudioAttributes audioAttribute,
-			IVVideoAttributes videoAttribute) {
-		if (videoAttribute != null) {
-			videoAttributes.setCodec(IVConstants.VIDEO_CODEC);
-			videoAttributes.setX264Profile(X264_PROFILE.BASELINE);
-			if (videoAttribute.getBitRate() != null)
-				videoAttributes.setBitRate(videoAttribute.getBitRate());
-			if (videoAttribute.getFrameRate() != null)
-				videoAttributes.setFrameRate(videoAttribute.getFrameRate());
-			if (videoAttribute.getSize() != null)
-				videoAttributes.setSize(
-						new VideoSize(videoAttribute.getSize().getWidth(), videoAttribute.getSize().getHeight()));
-			encodingAttributes.setVideoAttributes(videoAttributes);
-		}
-		if (audioAttribute != null) {
-			audioAttributes.setCodec(IVConstants.AUDIO_CODEC);
-			if (audioAttribute.getBitRate() != null)
-				audioAttributes.setBitRate(audioAttribute.getBitRate());
-			if (audioAttribute.getChannels() != null)
-				audioAttributes.setChannels(audioAttribute.getChannels());
-			if (audioAttribute.getSamplingRate() != null)
-				audioAttributes.setSamplingRate(audioAttribute.getSamplingRate());
-			encodingAttributes.setAudioAttributes(audioAttributes);
-		}
-		encodingAttributes.setInputFormat(fileFormat);
-		encodingAttributes.setOutputFormat(fileFormat);
-	}
-
-	/**
-	 * This method encodes the video stream with custom encoding attributes and
-	 * reduces the resolution and size of the file
+	 * The source is decoded with subsampling so that only the pixels needed for
+	 * the target resolution are held in memory.
 	 * 
 	 * @param data
-	 * @param fileFormat
+	 * @param profile
 	 * @return - returns byte array as response
-	 * @throws VideoException - throws exception if there is an issue with video
-	 *                        processing
+	 * @throws ImageException - throws exception if there is issue in process
 	 */
-	private byte[] encodeVideo(byte[] data, String fileFormat) throws VideoException {
-		File target = null;
-		File file = null;
-		try {
-			target = File.createTempFile(IVConstants.TARGET_FILENAME, fileFormat);
-			file = File.createTempFile(IVConstants.SOURCE_FILENAME, fileFormat);
-			FileUtils.writeByteArrayToFile(file, data);
-			MultimediaObject source = new MultimediaObject(file);
-			encoder.encode(source, target, encodingAttributes);
-			return FileUtils.readFileToByteArray(target);
+	private byte[] rescaleImage(byte[] data, ImageProfile profile) throws ImageException {
+		return computeShared(getCacheKey(data, profile), true, () -> rescaleImageContent(data, profile));
+	}
+
+	/**
+	 * Rescales the image content, bypassing the result cache
+	 * 
+	 * @param data
+	 * @param profile
+	 * @return - returns byte array as response
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	private byte[] rescaleImageContent(byte[] data, ImageProfile profile) throws ImageException {
+		if (profile.isRetainSmallerImage()) {
+			IVSize retainedSize = getRetainedSize(data, profile);
+			if (retainedSize == null)
+				return data;
+			profile = profile.toBuilder().size(retainedSize).retainSmallerImage(false).build();
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (ImageInputStream imageInput = new MemoryCacheImageInputStream(new ByteArrayInputStream(data));
+				ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(outputStream)) {
+			rescaleImage(imageInput, imageOutput, profile);
 		} catch (Exception e) {
-			throw new VideoException("Error Occurred while resizing the video");
-		} finally {
-			try {
-				if (file != null)
-					Files.deleteIfExists(file.toPath());
-				if (target != null)
-					Files.deleteIfExists(target.toPath());
-			} catch (IOException e) {
-				// ignore
-			}
+			throw new ImageException("Byte Array doesn't contain valid Image", e);
+		}
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Resolves the size to render an image with when the profile retains smaller
+	 * images
+	 * 
+	 * @param data
+	 * @param profile
+	 * @return - returns null if the original data can be returned as is, the
+	 *         source size if the image only needs re-encoding, otherwise the
+	 *         profile size
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	private IVSize getRetainedSize(byte[] data, ImageProfile profile) throws ImageException {
+		try (ImageInputStream probeStream = new MemoryCacheImageInputStream(new ByteArrayInputStream(data))) {
+			boolean sameFormat = IVImageUtils.isFormat(probeStream, profile.getFormat().getType());
+			IVSize size = IVImageUtils.getImageSize(probeStream);
+			if (size.getWidth() <= profile.getWidth() && size.getHeight() <= profile.getHeight())
+				return sameFormat ? null : size;
+			return new IVSize(profile.getWidth(), profile.getHeight());
+		} catch (Exception e) {
+			throw new ImageException("Byte Array doesn't contain valid Image", e);
+		}
+	}
 
+	/**
+	 * Rescales the image read from the input stream and writes it to the output
+	 * stream.
+	 * 
+	 * When the profile retains smaller images, an image at or below the profile
+	 * size is copied through if it is already in the requested format, otherwise
+	 * it is only re-encoded at its own size.
+	 * 
+	 * @param imageInput
+	 * @param imageOutput
+	 * @param profile
+	 * @throws IOException
+	 */
+	private void rescaleImage(ImageInputStream imageInput, ImageOutputStream imageOutput, ImageProfile profile)
+			throws IOException {
+		int width = profile.getWidth();
+		int height = profile.getHeight();
+		if (profile.isRetainSmallerImage()) {
+			IVSize size = IVImageUtils.getImageSize(imageInput);
+			if (size.getWidth() <= width && size.getHeight() <= height) {
+				if (IVImageUtils.isFormat(imageInput, profile.getFormat().getType())) {
+					copyImage(imageInput, imageOutput);
+					return;
+				}
+				width = size.getWidth();
+				height = size.getHeight();
+			}
 		}
+		BufferedImage originalImage = decodeImage(imageInput, width, height);
+		BufferedImage resizedImage = resampleImage(originalImage, width, height, profile.getResampler());
+		writeImageToOutputstream(profile.getFormat().getType(), imageOutput, resizedImage);
+	}
+
+	/**
+	 * Copies the remaining bytes of the input stream to the output stream
+	 * 
+	 * @param imageInput
+	 * @param imageOutput
+	 * @throws IOException
+	 */
+	private static void copyImage(ImageInputStream imageInput, ImageOutputStream imageOutput) throws IOException {
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = imageInput.read(buffer)) != -1)
+			imageOutput.write(buffer, 0, read);
 	}
 
 	/**
-	 * Rescales the images to lower resolution
+	 * Rescales the image to multiple resolutions with a single decode.
+	 * 
+	 * The source is decoded once, subsampled for the largest requested
+	 * resolution. Each smaller rendition is derived from the smallest already
+	 * rendered image that still covers it, and all renditions are encoded in
+	 * parallel.
 	 * 
 	 * @param data
+	 * @param profiles
+	 * @return - returns the renditions in the order of the requested profiles
+	 * @throws ImageException - throws exception if there is issue in process
+	 */
+	private List<byte[]> rescaleImage(byte[] data, List<ImageProfile> profiles) throws ImageException {
+		List<IVSize> sizes = new ArrayList<>();
+		int maxWidth = 0;
+		int maxHeight = 0;
+		for (ImageProfile profile : profiles) {
+			IVSize size = new IVSize(profile.getWidth(), profile.getHeight());
+			if (profile.isRetainSmallerImage())
+				size = getRetainedSize(data, profile);
+			sizes.add(size);
+			if (size != null) {
+				maxWidth = Math.max(maxWidth, size.getWidth());
+				maxHeight = Math.max(maxHeight, size.getHeight());
+			}
+		}
+		BufferedImage originalImage = null;
+		if (maxWidth > 0) {
+			try (ImageInputStream imageStream = new MemoryCacheImageInputStream(new ByteArrayInputStream(data))) {
+				originalImage = decodeImage(imageStream, maxWidth, maxHeight);
+			} catch (Exception e) {
+				throw new ImageException("Byte Array doesn't contain valid Image", e);
+			}
+		}
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < sizes.size(); i++) {
+			if (sizes.get(i) != null)
+				order.add(i);
+		}
+		order.sort(Comparator.comparingLong(i -> -(long) sizes.get(i).getWidth() * sizes.get(i).getHeight()));
+		List<BufferedImage> rendered = new ArrayList<>();
+		List<CompletableFuture<byte[]>> renditions = new ArrayList<>();
+		for (int i = 0; i < profiles.size(); i++)
+			renditions.add(CompletableFuture.completedFuture(data));
+		for (int index : order) {
+			ImageProfile profile = profiles.get(index);
+			int width = sizes.get(index).getWidth();
+			int height = sizes.get(index).getHeight();
+			BufferedImage sourceImage = originalImage;
+			for (BufferedImage image : rendered) {
+				if (image.getWidth() >= width && image.getHeight() >= height)
+					sourceImage = image;
+			}
+			BufferedImage resizedImage = resampleImage(sourceImage, width, height, profile.getResampler());
+			rendered.add(resizedImage);
+			renditions.set(index, CompletableFuture.supplyAsync(() -> {
+				try {
+					return encodeImage(profile.getFormat().getType(), resizedImage);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
+		}
+		List<byte[]> result = new ArrayList<>();
+		try {
+			for (CompletableFuture<byte[]> rendition : renditions)
+				result.add(rendition.join());
+		} catch (CompletionException e) {
+			throw new ImageException("Error Occurred while encoding the image", e.getCause());
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes the image, subsampled for the target resolution
+	 * 
+	 * @param imageInput
+	 * @param width      - width the image is going to be resized to
+	 * @param height     - height the image is going to be resized to
+	 * @return - returns the decoded image
+	 * @throws IOException - throws exception if the image cannot be decoded
+	 */
+	private BufferedImage decodeImage(ImageInputStream imageInput, int width, int height) throws IOException {
+		try (IVStageTimer timer = startStage(ProcessingStage.IMAGE_DECODE)) {
+			BufferedImage image = IVImageUtils.readImage(imageInput, width, height,
+					source -> timer.sourceSize(source.getWidth(), source.getHeight()));
+			timer.bytesIn(imageInput.getStreamPosition()).size(image.getWidth(), image.getHeight()).succeeded();
+			return image;
+		}
+	}
+
+	/**
+	 * Scales the image to the given resolution
+	 * 
+	 * @param originalImage
 	 * @param width
 	 * @param height
+	 * @param resampler
+	 * @return - returns the scaled image
+	 */
+	private BufferedImage resampleImage(BufferedImage originalImage, int width, int height, Resampler resampler) {
+		if (originalImage.getType() != 0 && originalImage.getWidth() == width && originalImage.getHeight() == height)
+			return originalImage;
+		try (IVStageTimer timer = startStage(ProcessingStage.IMAGE_SCALE)) {
+			BufferedImage resizedImage = resampler.resample(originalImage, width, height);
+			timer.sourceSize(originalImage.getWidth(), originalImage.getHeight()).size(width, height).succeeded();
+			return resizedImage;
+		}
+	}
+
+	/**
+	 * Encodes the resized image in the given format
+	 * 
 	 * @param contentType
+	 * @param resizedImage
 	 * @return - returns byte array as response
-	 * @throws ImageException - throws exception if there is issue in process
+	 * @throws IOException
 	 */
-	private byte[] rescaleImage(byte[] data, int width, int height, String contentType) throws ImageException {
-		try {
-			BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(data));
-			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-			int type = originalImage.getType() == 0 ? BufferedImage.TYPE_INT_ARGB : originalImage.getType();
-			BufferedImage resizedImage = new BufferedImage(width, height, type);
-			Graphics2D g = resizedImage.createGraphics();
-			g.drawImage(originalImage, 0, 0, width, height, null);
-			g.dispose();
-			writeImageToOutputstream(width, height, contentType, originalImage, outputStream, resizedImage);
-			return outputStream.toByteArray();
-		} catch (Exception e) {
-			throw new ImageException("Byte Array doesn't contain valid Image");
+	private byte[] encodeImage(String contentType, BufferedImage resizedImage) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(outputStream)) {
+			writeImageToOutputstream(contentType, imageOutput, resizedImage);
 		}
+		return outputStream.toByteArray();
 	}
 
 	/**
 	 * Checks for alpha for PNG Files and sets default values to it
 	 * 
-	 * @param width
-	 * @param height
+	 * Formats that cannot store the alpha channel get the already resized image
+	 * flattened to RGB, instead of rendering the source image again. The check is
+	 * done before writing, as a streamed output cannot be rewound.
+	 * 
 	 * @param contentType
-	 * @param originalImage
 	 * @param outputStream
 	 * @param resizedImage
 	 * @throws IOException
 	 */
-	private void writeImageToOutputstream(int width, int height, String contentType, BufferedImage originalImage,
-			ByteArrayOutputStream outputStream, BufferedImage resizedImage) throws IOException {
-		int type;
-		Graphics2D g;
+	private void writeImageToOutputstream(String contentType, ImageOutputStream outputStream,
+			BufferedImage resizedImage) throws IOException {
+		if (!ImageIO.getImageWriters(ImageTypeSpecifier.createFromRenderedImage(resizedImage), contentType)
+				.hasNext()) {
+			try (IVStageTimer timer = startStage(ProcessingStage.IMAGE_FLATTEN)) {
+				BufferedImage rgbImage = new BufferedImage(resizedImage.getWidth(), resizedImage.getHeight(),
+						BufferedImage.TYPE_INT_RGB);
+				Graphics2D g = rgbImage.createGraphics();
+				g.drawImage(resizedImage, 0, 0, null);
+				g.dispose();
+				resizedImage = rgbImage;
+				timer.format(contentType).size(rgbImage.getWidth(), rgbImage.getHeight()).succeeded();
+			}
+		}
+		try (IVStageTimer timer = startStage(ProcessingStage.IMAGE_ENCODE)) {
+			long start = outputStream.getStreamPosition();
+			if (!ImageIO.write(resizedImage, contentType, outputStream))
+				throw new IOException("No image writer found for " + contentType);
+			timer.format(contentType).size(resizedImage.getWidth(), resizedImage.getHeight())
+					.bytesOut(outputStream.getStreamPosition() - start).succeeded();
+		}
+	}
+
+	/**
+	 * Starts measuring a stage of the current call
+	 * 
+	 * @param stage
+	 * @return - returns the timer of the stage, which does nothing if calls are
+	 *         not measured
+	 */
+	private IVStageTimer startStage(ProcessingStage stage) {
+		return IVStageTimer.start(metricsListener, stage);
+	}
+
+	/**
+	 * Opens the file for writing an image, truncating any existing content
+	 * 
+	 * @param target
+	 * @return - returns the image stream writing to the file
+	 * @throws IOException - throws exception if there is issue with file
+	 */
+	private ImageOutputStream createImageOutputStream(Path target) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw");
 		try {
-			ImageIO.write(resizedImage, contentType, outputStream);
-		} catch (Exception e) {
-			type = BufferedImage.TYPE_INT_RGB;
-			resizedImage = new BufferedImage(width, height, type);
-			g = resizedImage.createGraphics();
-			g.drawImage(originalImage, 0, 0, width, height, null);
-			g.dispose();
-			ImageIO.write(resizedImage, contentType, outputStream);
+			file.setLength(0);
+			return new FileImageOutputStream(file);
+		} catch (IOException e) {
+			file.close();
+			throw e;
 		}
 	}
 
@@ -592,14 +2316,34 @@ public class IVCompressor {
 	 * @throws IOException - throws exception if there is issue with file
 	 */
 	private String createAndStoreNewFile(String fileName, String path, byte[] data) throws IOException {
+		File newFile = createNewFilePath(fileName, path).toFile();
+		try (IVStageTimer timer = startStage(ProcessingStage.FILE_SAVE)) {
+			timer.format(fileName.substring(fileName.lastIndexOf('.') + 1)).bytesOut(data.length);
+			FileUtils.writeByteArrayToFile(newFile, data);
+			timer.succeeded();
+		}
+		return "File is saved in path::" + newFile.getAbsolutePath();
+	}
+
+	/**
+	 * Method to resolve the location of a new file in local path, creating the
+	 * missing parent directories
+	 * 
+	 * @param fileName -indicates the file name of the output object
+	 * @param path     -location to store the output file
+	 * @return - returns the path of the new file
+	 * @throws IOException - throws exception if there is issue with path
+	 */
+	private Path createNewFilePath(String fileName, String path) throws IOException {
 		checkForValidPath(path);
 		String fullPath = path;
 		if (!path.endsWith(File.separator))
 			fullPath += File.separator;
 		fullPath += fileName;
-		File newFile = new File(fullPath);
-		FileUtils.writeByteArrayToFile(newFile, data);
-		return "File is saved in path::" + newFile.getAbsolutePath();
+		Path newFile = Paths.get(fullPath);
+		if (newFile.getParent() != null)
+			Files.createDirectories(newFile.getParent());
+		return newFile;
 	}
 
 	/**
@@ -618,20 +2362,285 @@ public class IVCompressor {
 	}
 
 	/**
-	 * @param fileFormat
-	 * @param resolution
-	 * @return
-	 */
-	private String setAttributes(VideoFormats fileFormat, ResizeResolution resolution) {
-		String fileType = fileFormat.getType();
-		encodingAttributes.setInputFormat(fileType);
-		encodingAttributes.setOutputFormat(fileType);
-		if (resolution != null) {
-			Optional<VideoAttributes> videoAttr = encodingAttributes.getVideoAttributes();
-			if (videoAttr.isPresent())
-				videoAttr.get().setSize(new VideoSize(resolution.getWidth(), resolution.getHeight()));
-		}
-		return fileType;
+	 * Holder of the worker pool shared by compressors created without a pool. The
+	 * pool is only created along with the first such compressor
+	 */
+	private static final class DefaultVideoPool {
+
+		private static final IVWorkerPool INSTANCE = IVWorkerPool.createDefault();
+
+		private DefaultVideoPool() {
+		}
+	}
+
+	/**
+	 * Holder of the pool shared by compressors created without a segment pool.
+	 * Running one segment per core keeps all cores busy, and segments the pool
+	 * cannot queue are encoded by the calling thread
+	 */
+	private static final class DefaultSegmentPool {
+
+		private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+		private static final IVWorkerPool INSTANCE = new IVWorkerPool(CORES, CORES * 16,
+				RejectionPolicy.CALLER_RUNS);
+
+		private DefaultSegmentPool() {
+		}
+	}
+
+	/**
+	 * Returns the cached result of the key, or runs the task and caches its
+	 * result. Concurrent calls with the same key wait for the task of the first
+	 * call instead of running their own, if this compressor coalesces duplicates
+	 * 
+	 * @param key      - key of the result. Null runs the task on its own
+	 * @param coalesce - whether the call may share the task of another call
+	 * @param task     - computes the result
+	 * @return - returns the result
+	 * @throws E - throws the exception of the task
+	 */
+	private <E extends Exception> byte[] computeShared(String key, boolean coalesce, CacheableTask<E> task)
+			throws E {
+		if (key == null)
+			return task.run();
+		if (resultCache != null) {
+			byte[] cached = resultCache.get(key);
+			if (cached != null)
+				return cached;
+		}
+		if (inFlight == null || !coalesce)
+			return computeAndCache(key, task);
+		CompletableFuture<byte[]> own = new CompletableFuture<>();
+		CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, own);
+		if (running != null)
+			return awaitShared(running);
+		try {
+			byte[] result = computeAndCache(key, task);
+			// the waiting calls copy the result, which the caller may modify
+			own.complete(result.clone());
+			return result;
+		} catch (Throwable e) {
+			own.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, own);
+		}
+	}
+
+	/**
+	 * Runs the task and caches its result
+	 * 
+	 * @param key
+	 * @param task
+	 * @return - returns the result
+	 * @throws E - throws the exception of the task
+	 */
+	private <E extends Exception> byte[] computeAndCache(String key, CacheableTask<E> task) throws E {
+		byte[] result = task.run();
+		if (resultCache != null)
+			resultCache.put(key, result);
+		return result;
+	}
+
+	/**
+	 * Waits for the task of another call. The wait is not interruptible, as the
+	 * task runs to its end for the other call anyway
+	 * 
+	 * @param running - future result of the task
+	 * @return - returns a copy of the result
+	 * @throws E - throws the exception of the task
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E extends Exception> byte[] awaitShared(CompletableFuture<byte[]> running) throws E {
+		try {
+			return running.join().clone();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			// the task throws nothing else
+			throw (E) cause;
+		}
+	}
+
+	/**
+	 * @param data
+	 * @param profile
+	 * @return - returns the key of the resized image, or null if it is neither
+	 *         cached nor coalesced
+	 */
+	private String getCacheKey(byte[] data, ImageProfile profile) {
+		return resultCache == null && inFlight == null ? null : IVResultCache.createKey(data, profile);
+	}
+
+	/**
+	 * @param data
+	 * @param profile
+	 * @return - returns the key of the encoded video, or null if it is neither
+	 *         cached nor coalesced
+	 */
+	private String getCacheKey(byte[] data, VideoProfile profile) {
+		return resultCache == null && inFlight == null ? null : IVResultCache.createKey(data, profile);
+	}
+
+	/**
+	 * Computation whose result can be cached
+	 */
+	@FunctionalInterface
+	private interface CacheableTask<E extends Exception> {
+
+		byte[] run() throws E;
+	}
+
+	/**
+	 * Holder of the daemon thread enforcing the timeouts of video jobs, created
+	 * along with the first job with a timeout
+	 */
+	private static final class JobTimer {
+
+		private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "ivcompressor-job-timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		static {
+			INSTANCE.setRemoveOnCancelPolicy(true);
+		}
+
+		private JobTimer() {
+		}
+	}
+
+	/**
+	 * Encode run by a video job
+	 */
+	@FunctionalInterface
+	private interface VideoTask<T> {
+
+		T run(FFmpegMonitor monitor) throws VideoException;
+	}
+
+	/**
+	 * Holder of the scratch space shared by compressors created without one. The
+	 * scratch space is only created along with the first such compressor
+	 */
+	private static final class DefaultScratchSpace {
+
+		private static final IVScratchSpace INSTANCE = IVScratchSpace.createDefault();
+
+		private DefaultScratchSpace() {
+		}
+	}
+
+	/**
+	 * Builder of {@link IVCompressor}. Resources that are not set are shared with
+	 * the other compressors using the defaults
+	 */
+	public static final class Builder {
+
+		private IVWorkerPool videoPool;
+
+		private IVScratchSpace scratchSpace;
+
+		private IVWorkerPool segmentPool;
+
+		private IVResultCache resultCache;
+
+		private boolean coalesceDuplicates;
+
+		private IVMetricsListener metricsListener;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param videoPool pool limiting the number of concurrent asynchronous video
+		 *                  encodes. It is not closed by the compressor
+		 * @return this builder
+		 */
+		public Builder videoPool(IVWorkerPool videoPool) {
+			if (videoPool == null)
+				throw new IllegalArgumentException("No worker pool specified");
+			this.videoPool = videoPool;
+			return this;
+		}
+
+		/**
+		 * @param scratchSpace directory and quota of the temp files of video encodes
+		 * @return this builder
+		 */
+		public Builder scratchSpace(IVScratchSpace scratchSpace) {
+			if (scratchSpace == null)
+				throw new IllegalArgumentException("No scratch space specified");
+			this.scratchSpace = scratchSpace;
+			return this;
+		}
+
+		/**
+		 * @param segmentPool pool running the segments of videos encoded in
+		 *                    parallel, see
+		 *                    {@link VideoProfile.Builder#parallelSegments(int)}. It
+		 *                    must not be the video pool, whose workers wait for the
+		 *                    segments. It is not closed by the compressor
+		 * @return this builder
+		 */
+		public Builder segmentPool(IVWorkerPool segmentPool) {
+			if (segmentPool == null)
+				throw new IllegalArgumentException("No worker pool specified");
+			this.segmentPool = segmentPool;
+			return this;
+		}
+
+		/**
+		 * @param resultCache cache of the results of calls on image and video
+		 *                    content, so that identical content is not encoded
+		 *                    twice. Results are not cached by default
+		 * @return this builder
+		 */
+		public Builder resultCache(IVResultCache resultCache) {
+			if (resultCache == null)
+				throw new IllegalArgumentException("No result cache specified");
+			this.resultCache = resultCache;
+			return this;
+		}
+
+		/**
+		 * @param coalesceDuplicates whether concurrent calls on the same image or
+		 *                           video content with the same settings share one
+		 *                           decode or ffmpeg run. The content of every call
+		 *                           is hashed, see {@link IVResultCache}. Disabled
+		 *                           by default
+		 * @return this builder
+		 */
+		public Builder coalesceDuplicates(boolean coalesceDuplicates) {
+			this.coalesceDuplicates = coalesceDuplicates;
+			return this;
+		}
+
+		/**
+		 * @param metricsListener receives the duration, sizes and allocations of
+		 *                        every decode, scale and encode stage of the calls,
+		 *                        see {@link ProcessingStage}. Calls are not
+		 *                        measured by default
+		 * @return this builder
+		 */
+		public Builder metricsListener(IVMetricsListener metricsListener) {
+			if (metricsListener == null)
+				throw new IllegalArgumentException("No metrics listener specified");
+			this.metricsListener = metricsListener;
+			return this;
+		}
+
+		/**
+		 * @return the compressor
+		 */
+		public IVCompressor build() {
+			return new IVCompressor(this);
+		}
 	}
 
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import io.github.techgnious.dto.IVStageMetrics;
+import io.github.techgnious.dto.ProcessingStage;
+import io.github.techgnious.jfr.IVFlightRecorder;
+import io.github.techgnious.jfr.IVStageRecording;
+import io.github.techgnious.listener.IVMetricsListener;
+
+/**
+ * Measures one stage of a call and reports it to the metrics listener and as
+ * JFR event when closed.
+ *
+ * Without listener and with the JFR event disabled the shared {@link #NONE}
+ * timer is used, whose methods do nothing, so that unobserved calls neither
+ * read clocks nor count allocations.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+class IVStageTimer implements AutoCloseable {
+
+	/**
+	 * Timer of unobserved stages
+	 */
+	static final IVStageTimer NONE = new IVStageTimer();
+
+	private IVStageTimer() {
+	}
+
+	/**
+	 * Starts measuring a stage
+	 *
+	 * @param listener - receives the measurements. Can be null
+	 * @param stage    - the measured stage
+	 * @return - returns the timer, to be closed at the end of the stage
+	 */
+	static IVStageTimer start(IVMetricsListener listener, ProcessingStage stage) {
+		IVStageRecording recording = IVFlightRecorder.beginStage(stage);
+		if (listener == null && recording == null)
+			return NONE;
+		return new Active(listener, recording, stage);
+	}
+
+	/**
+	 * @param format - format read or written by the stage
+	 * @return this timer
+	 */
+	IVStageTimer format(String format) {
+		return this;
+	}
+
+	/**
+	 * @param bytes - bytes read by the stage
+	 * @return this timer
+	 */
+	IVStageTimer bytesIn(long bytes) {
+		return this;
+	}
+
+	/**
+	 * @param bytes - bytes written by the stage
+	 * @return this timer
+	 */
+	IVStageTimer bytesOut(long bytes) {
+		return this;
+	}
+
+	/**
+	 * @param width  - width of the image read by the stage
+	 * @param height - height of the image read by the stage
+	 * @return this timer
+	 */
+	IVStageTimer sourceSize(int width, int height) {
+		return this;
+	}
+
+	/**
+	 * @param width  - width of the image produced by the stage
+	 * @param height - height of the image produced by the stage
+	 * @return this timer
+	 */
+	IVStageTimer size(int width, int height) {
+		return this;
+	}
+
+	/**
+	 * @param exitCode - exit code of ffmpeg. Can be null if ffmpeg did not exit
+	 * @return this timer
+	 */
+	IVStageTimer exitCode(Integer exitCode) {
+		return this;
+	}
+
+	/**
+	 * Marks the stage as completed. Stages closed without being marked are
+	 * reported as failed
+	 */
+	void succeeded() {
+		// nothing to report
+	}
+
+	/**
+	 * Ends the stage and reports it
+	 */
+	@Override
+	public void close() {
+		// nothing to report
+	}
+
+	/**
+	 * Timer of stages reported to a listener or JFR
+	 */
+	private static final class Active extends IVStageTimer {
+
+		private final IVMetricsListener listener;
+
+		private final IVStageRecording recording;
+
+		private final ProcessingStage stage;
+
+		private final long startNanos;
+
+		private final long startAllocatedBytes;
+
+		private String format;
+
+		private long bytesIn = -1;
+
+		private long bytesOut = -1;
+
+		private int sourceWidth = -1;
+
+		private int sourceHeight = -1;
+
+		private int width = -1;
+
+		private int height = -1;
+
+		private Integer exitCode;
+
+		private boolean succeeded;
+
+		private boolean closed;
+
+		private Active(IVMetricsListener listener, IVStageRecording recording, ProcessingStage stage) {
+			this.listener = listener;
+			this.recording = recording;
+			this.stage = stage;
+			// the JFR events leave allocations to the allocation samples of JFR
+			this.startAllocatedBytes = listener != null ? Allocations.getAllocatedBytes() : -1;
+			this.startNanos = System.nanoTime();
+		}
+
+		@Override
+		IVStageTimer format(String format) {
+			this.format = format;
+			return this;
+		}
+
+		@Override
+		IVStageTimer bytesIn(long bytes) {
+			this.bytesIn = bytes;
+			return this;
+		}
+
+		@Override
+		IVStageTimer bytesOut(long bytes) {
+			this.bytesOut = bytes;
+			return this;
+		}
+
+		@Override
+		IVStageTimer sourceSize(int width, int height) {
+			this.sourceWidth = width;
+			this.sourceHeight = height;
+			return this;
+		}
+
+		@Override
+		IVStageTimer exitCode(Integer exitCode) {
+			this.exitCode = exitCode;
+			return this;
+		}
+
+		@Override
+		IVStageTimer size(int width, int height) {
+			this.width = width;
+			this.height = height;
+			return this;
+		}
+
+		@Override
+		void succeeded() {
+			succeeded = true;
+		}
+
+		@Override
+		public void close() {
+			if (closed)
+				return;
+			closed = true;
+			long durationNanos = System.nanoTime() - startNanos;
+			long allocatedBytes = -1;
+			if (startAllocatedBytes >= 0)
+				allocatedBytes = Allocations.getAllocatedBytes() - startAllocatedBytes;
+			IVStageMetrics metrics = new IVStageMetrics(stage, format, durationNanos, bytesIn, bytesOut, sourceWidth,
+					sourceHeight, width, height, exitCode, allocatedBytes, !succeeded);
+			if (recording != null)
+				recording.finish(metrics);
+			if (listener != null) {
+				try {
+					listener.onStage(metrics);
+				} catch (RuntimeException e) {
+					// metrics must not fail the call
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the bytes allocated per thread, loaded on first use as it relies on
+	 * the HotSpot extensions of the management API
+	 */
+	private static final class Allocations {
+
+		private static final com.sun.management.ThreadMXBean THREADS = createThreadBean();
+
+		private Allocations() {
+		}
+
+		/**
+		 * @return - returns the bytes allocated by the current thread so far, or -1
+		 *         if the JVM does not count them
+		 */
+		static long getAllocatedBytes() {
+			return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+		private static com.sun.management.ThreadMXBean createThreadBean() {
+			try {
+				ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+				if (threads instanceof com.sun.management.ThreadMXBean) {
+					com.sun.management.ThreadMXBean hotspotThreads = (com.sun.management.ThreadMXBean) threads;
+					if (hotspotThreads.isThreadAllocatedMemorySupported()
+							&& hotspotThreads.isThreadAllocatedMemoryEnabled())
+						return hotspotThreads;
+				}
+			} catch (LinkageError | SecurityException e) {
+				// JVM without the HotSpot extensions
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.github.techgnious.dto.IVProgress;
+import io.github.techgnious.ffmpeg.FFmpegMonitor;
+
+/**
+ * Handle of a video job submitted to an {@link IVCompressor}, giving access to
+ * its progress and result and allowing to cancel it.
+ *
+ * @author srikanth.anreddy
+ *
+ * @param <T> - type of the result of the job
+ */
+public final class IVVideoJob<T> {
+
+	private final CompletableFuture<T> result;
+
+	private final FFmpegMonitor monitor;
+
+	IVVideoJob(CompletableFuture<T> result, FFmpegMonitor monitor) {
+		this.result = result;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * @return the future result of the job. Cancelling it cancels the job
+	 */
+	public CompletableFuture<T> getResult() {
+		return result;
+	}
+
+	/**
+	 * @return the latest progress reported by ffmpeg, or null if the job has not
+	 *         reported any progress yet
+	 */
+	public IVProgress getProgress() {
+		return monitor.getProgress();
+	}
+
+	/**
+	 * Cancels the job. A job waiting for a worker is skipped, while the ffmpeg
+	 * processes of a running job are terminated. The result completes right
+	 * away, the worker is free once ffmpeg has exited
+	 *
+	 * @return - returns false if the job had already ended
+	 */
+	public boolean cancel() {
+		return result.cancel(false);
+	}
+
+	/**
+	 * @return true if the job has ended, successfully or not
+	 */
+	public boolean isDone() {
+		return result.isDone();
+	}
+}
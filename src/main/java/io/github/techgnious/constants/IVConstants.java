@@ -27,7 +27,9 @@ public class IVConstants {
 
 	public static final String VIDEO_CODEC = "h264";
 	public static final String AUDIO_CODEC = "aac";
-	public static final String SOURCE_FILENAME = "source";
-	public static final String TARGET_FILENAME = "target";
+	public static final String SOURCE_FILENAME = "ivcompressor-source";
+	public static final String TARGET_FILENAME = "ivcompressor-target";
+	public static final String SEGMENTS_DIRNAME = "ivcompressor-segments";
+	public static final String FRAMES_DIRNAME = "ivcompressor-frames";
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines the H.264 profiles, which limit the coding tools
+ * used so that older devices can decode the video
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum H264Profile {
+
+	BASELINE("baseline"), MAIN("main"), HIGH("high");
+
+	/**
+	 * Name of the profile in ffmpeg
+	 */
+	private String name;
+
+	H264Profile(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the name of the profile in ffmpeg
+	 */
+	public String getName() {
+		return name;
+	}
+}
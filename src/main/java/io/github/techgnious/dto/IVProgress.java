@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the progress of a video job, as reported by ffmpeg while it
+ * encodes.
+ *
+ * Rates are averages since the start of the job. For videos encoded in
+ * parallel segments, the processed time and the frames add up over all
+ * segments.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVProgress {
+
+	/**
+	 * Length of the video encoded so far
+	 */
+	private final Duration processed;
+
+	/**
+	 * Length of the whole video, or null if it is not known
+	 */
+	private final Duration total;
+
+	/**
+	 * Number of frames encoded so far
+	 */
+	private final long frames;
+
+	/**
+	 * Wall clock time since the start of the job
+	 */
+	private final Duration elapsed;
+
+	/**
+	 * @param processed - length of the video encoded so far
+	 * @param total     - length of the whole video. Can be null if not known
+	 * @param frames    - number of frames encoded so far
+	 * @param elapsed   - wall clock time since the start of the job
+	 */
+	public IVProgress(Duration processed, Duration total, long frames, Duration elapsed) {
+		this.processed = processed;
+		this.total = total;
+		this.frames = frames;
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * @return the length of the video encoded so far
+	 */
+	public Duration getProcessed() {
+		return processed;
+	}
+
+	/**
+	 * @return the length of the whole video, or null if it is not known
+	 */
+	public Duration getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the number of frames encoded so far
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return the wall clock time since the start of the job
+	 */
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * @return - returns the progress in thousandths, from 0 to 1000, or -1 if the
+	 *         length of the video is not known
+	 */
+	public int getPermille() {
+		if (total == null || total.isZero())
+			return -1;
+		return (int) Math.min(1000, processed.toMillis() * 1000 / total.toMillis());
+	}
+
+	/**
+	 * @return - returns the encode speed as a multiple of real time, e.g. 2.0 if
+	 *         one second of video took half a second to encode
+	 */
+	public double getSpeed() {
+		long elapsedMillis = elapsed.toMillis();
+		return elapsedMillis <= 0 ? 0 : (double) processed.toMillis() / elapsedMillis;
+	}
+
+	/**
+	 * @return - returns the number of frames encoded per second
+	 */
+	public double getFramesPerSecond() {
+		long elapsedMillis = elapsed.toMillis();
+		return elapsedMillis <= 0 ? 0 : frames * 1000.0 / elapsedMillis;
+	}
+
+	/**
+	 * @return - returns the estimated wall clock time until the end of the job at
+	 *         the current speed, or null if it cannot be estimated
+	 */
+	public Duration getRemaining() {
+		double speed = getSpeed();
+		if (total == null || speed <= 0)
+			return null;
+		long remainingMillis = Math.max(0, total.toMillis() - processed.toMillis());
+		return Duration.ofMillis((long) (remainingMillis / speed));
+	}
+
+	@Override
+	public String toString() {
+		return "IVProgress [processed=" + processed + ", total=" + total + ", frames=" + frames + ", elapsed="
+				+ elapsed + ", permille=" + getPermille() + ", speed=" + getSpeed() + "]";
+	}
+}
@@ -46,6 +46,19 @@ public class IVSize {
 
 	private int height;
 
+	public IVSize() {
+		super();
+	}
+
+	/**
+	 * @param width  the width to set
+	 * @param height the height to set
+	 */
+	public IVSize(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
 	/**
 	 * @return the width
 	 */
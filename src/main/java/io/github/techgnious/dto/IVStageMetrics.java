@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+import java.time.Duration;
+
+/**
+ * Measurements of one stage of an image or video call.
+ *
+ * Sizes that do not apply to a stage or are not known are -1. Allocated bytes
+ * are counted on the calling thread only, so the memory used by ffmpeg is not
+ * included.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVStageMetrics {
+
+	private final ProcessingStage stage;
+
+	/**
+	 * Name of the image or video format the stage reads or writes, or null if
+	 * not known
+	 */
+	private final String format;
+
+	private final long durationNanos;
+
+	private final long bytesIn;
+
+	private final long bytesOut;
+
+	private final int sourceWidth;
+
+	private final int sourceHeight;
+
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * Exit code of ffmpeg, or null for stages without ffmpeg
+	 */
+	private final Integer exitCode;
+
+	private final long allocatedBytes;
+
+	private final boolean failed;
+
+	/**
+	 * @param stage          - the measured stage
+	 * @param format         - format read or written by the stage. Can be null
+	 * @param durationNanos  - wall clock time of the stage
+	 * @param bytesIn        - bytes read by the stage, or -1
+	 * @param bytesOut       - bytes written by the stage, or -1
+	 * @param sourceWidth    - width of the image read by the stage, or -1
+	 * @param sourceHeight   - height of the image read by the stage, or -1
+	 * @param width          - width of the image produced by the stage, or -1
+	 * @param height         - height of the image produced by the stage, or -1
+	 * @param exitCode       - exit code of ffmpeg. Can be null for stages
+	 *                       without ffmpeg or runs that did not exit
+	 * @param allocatedBytes - bytes allocated by the calling thread during the
+	 *                       stage, or -1 if the JVM does not count them
+	 * @param failed         - whether the stage ended with an exception
+	 */
+	public IVStageMetrics(ProcessingStage stage, String format, long durationNanos, long bytesIn, long bytesOut,
+			int sourceWidth, int sourceHeight, int width, int height, Integer exitCode, long allocatedBytes,
+			boolean failed) {
+		this.stage = stage;
+		this.format = format;
+		this.durationNanos = durationNanos;
+		this.bytesIn = bytesIn;
+		this.bytesOut = bytesOut;
+		this.sourceWidth = sourceWidth;
+		this.sourceHeight = sourceHeight;
+		this.width = width;
+		this.height = height;
+		this.exitCode = exitCode;
+		this.allocatedBytes = allocatedBytes;
+		this.failed = failed;
+	}
+
+	/**
+	 * @return the measured stage
+	 */
+	public ProcessingStage getStage() {
+		return stage;
+	}
+
+	/**
+	 * @return the format read or written by the stage, or null if not known
+	 */
+	public String getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the wall clock time of the stage
+	 */
+	public Duration getDuration() {
+		return Duration.ofNanos(durationNanos);
+	}
+
+	/**
+	 * @return the wall clock time of the stage in nanoseconds
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * @return the bytes read by the stage, or -1
+	 */
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	/**
+	 * @return the bytes written by the stage, or -1
+	 */
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	/**
+	 * @return the width of the image read by the stage, or -1
+	 */
+	public int getSourceWidth() {
+		return sourceWidth;
+	}
+
+	/**
+	 * @return the height of the image read by the stage, or -1
+	 */
+	public int getSourceHeight() {
+		return sourceHeight;
+	}
+
+	/**
+	 * @return the width of the image produced by the stage, or -1
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the image produced by the stage, or -1
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return - returns the number of pixels of the image produced by the stage,
+	 *         or -1 for stages without image
+	 */
+	public long getPixels() {
+		return width < 0 || height < 0 ? -1 : (long) width * height;
+	}
+
+	/**
+	 * @return the exit code of ffmpeg, or null for stages without ffmpeg or runs
+	 *         that did not exit
+	 */
+	public Integer getExitCode() {
+		return exitCode;
+	}
+
+	/**
+	 * @return the bytes allocated by the calling thread during the stage, or -1
+	 *         if the JVM does not count them
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return whether the stage ended with an exception
+	 */
+	public boolean isFailed() {
+		return failed;
+	}
+
+	@Override
+	public String toString() {
+		return "IVStageMetrics [stage=" + stage + ", format=" + format + ", duration=" + getDuration() + ", bytesIn="
+				+ bytesIn + ", bytesOut=" + bytesOut + ", sourceWidth=" + sourceWidth + ", sourceHeight=" + sourceHeight
+				+ ", width=" + width + ", height=" + height + ", exitCode=" + exitCode + ", allocatedBytes="
+				+ allocatedBytes + ", failed=" + failed + "]";
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sprite sheets of frames sampled from a video at a fixed interval, e.g. for
+ * the previews of a scrub bar, along with the position of every frame on the
+ * sheets.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVStoryboard {
+
+	/**
+	 * Format of the sheets
+	 */
+	private final ImageFormats format;
+
+	/**
+	 * Encoded sheets
+	 */
+	private final List<byte[]> sheets;
+
+	/**
+	 * Frames in the order of their position in the video
+	 */
+	private final List<Tile> tiles;
+
+	/**
+	 * @param format - format of the sheets
+	 * @param sheets - encoded sheets
+	 * @param tiles  - frames in the order of their position in the video
+	 */
+	public IVStoryboard(ImageFormats format, List<byte[]> sheets, List<Tile> tiles) {
+		this.format = format;
+		this.sheets = Collections.unmodifiableList(new ArrayList<>(sheets));
+		this.tiles = Collections.unmodifiableList(new ArrayList<>(tiles));
+	}
+
+	/**
+	 * @return the format
+	 */
+	public ImageFormats getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the sheets
+	 */
+	public List<byte[]> getSheets() {
+		return sheets;
+	}
+
+	/**
+	 * @return the tiles
+	 */
+	public List<Tile> getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * Writes the index of the storyboard as WebVTT thumbnail track, where every
+	 * cue points at the area of its frame on a sheet, e.g.
+	 * "sheet0.jpg#xywh=100,0,100,100"
+	 *
+	 * @param sheetUrls - urls the sheets are published at, in the order of the
+	 *                  sheets
+	 * @return - returns the WebVTT document
+	 */
+	public String toWebVtt(List<String> sheetUrls) {
+		if (sheetUrls.size() != sheets.size())
+			throw new IllegalArgumentException("Got " + sheetUrls.size() + " urls for " + sheets.size() + " sheets");
+		StringBuilder vtt = new StringBuilder("WEBVTT\n");
+		for (Tile tile : tiles) {
+			vtt.append('\n').append(formatTime(tile.getStart())).append(" --> ").append(formatTime(tile.getEnd()))
+					.append('\n').append(sheetUrls.get(tile.getSheet())).append("#xywh=").append(tile.getX())
+					.append(',').append(tile.getY()).append(',').append(tile.getWidth()).append(',')
+					.append(tile.getHeight()).append('\n');
+		}
+		return vtt.toString();
+	}
+
+	private static String formatTime(Duration time) {
+		long millis = time.toMillis();
+		return String.format("%02d:%02d:%02d.%03d", millis / 3600000, millis / 60000 % 60, millis / 1000 % 60,
+				millis % 1000);
+	}
+
+	/**
+	 * Area of one frame on a sheet and the part of the video it stands for
+	 */
+	public static final class Tile {
+
+		private final Duration start;
+
+		private final Duration end;
+
+		private final int sheet;
+
+		private final int x;
+
+		private final int y;
+
+		private final int width;
+
+		private final int height;
+
+		/**
+		 * @param start  - position of the frame in the video
+		 * @param end    - position of the next frame in the video
+		 * @param sheet  - index of the sheet holding the frame
+		 * @param x      - left edge of the frame on the sheet
+		 * @param y      - top edge of the frame on the sheet
+		 * @param width  - width of the frame
+		 * @param height - height of the frame
+		 */
+		public Tile(Duration start, Duration end, int sheet, int x, int y, int width, int height) {
+			this.start = start;
+			this.end = end;
+			this.sheet = sheet;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		/**
+		 * @return the start
+		 */
+		public Duration getStart() {
+			return start;
+		}
+
+		/**
+		 * @return the end
+		 */
+		public Duration getEnd() {
+			return end;
+		}
+
+		/**
+		 * @return the sheet
+		 */
+		public int getSheet() {
+			return sheet;
+		}
+
+		/**
+		 * @return the x
+		 */
+		public int getX() {
+			return x;
+		}
+
+		/**
+		 * @return the y
+		 */
+		public int getY() {
+			return y;
+		}
+
+		/**
+		 * @return the width
+		 */
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 * @return the height
+		 */
+		public int getHeight() {
+			return height;
+		}
+	}
+}
@@ -38,6 +38,40 @@ public class IVVideoAttributes {
 	 * video size will not be modified.
 	 */
 	private IVSize size = null;
+	/**
+	 * The x264 speed preset. Slower presets give smaller output at the same
+	 * quality. If null or not specified the preset of ffmpeg (medium) is used.
+	 */
+	private VideoPreset preset = null;
+	/**
+	 * The x264 tune option for the type of content. If null or not specified the
+	 * encoder is not tuned.
+	 */
+	private VideoTune tune = null;
+	/**
+	 * The H.264 profile. If null or not specified the baseline profile is used.
+	 */
+	private H264Profile profile = null;
+	/**
+	 * The constant rate factor (0-51, lower is better quality) for constant
+	 * quality encoding. If specified it takes the place of the bitrate.
+	 */
+	private Integer crf = null;
+	/**
+	 * The maximum bitrate in bits per second. Combined with the crf it caps the
+	 * bitrate of constant quality encoding (capped CRF).
+	 */
+	private Integer maxBitRate = null;
+	/**
+	 * The rate control buffer size in bits. If null or not specified twice the
+	 * maximum bitrate is used.
+	 */
+	private Integer bufferSize = null;
+	/**
+	 * The number of encoder threads. If null or not specified ffmpeg picks one
+	 * based on the number of cores.
+	 */
+	private Integer threads = null;
 
 	/**
 	 * @return the bitRate
@@ -81,4 +115,102 @@ public class IVVideoAttributes {
 		this.size = size;
 	}
 
+	/**
+	 * @return the preset
+	 */
+	public VideoPreset getPreset() {
+		return preset;
+	}
+
+	/**
+	 * @param preset the preset to set
+	 */
+	public void setPreset(VideoPreset preset) {
+		this.preset = preset;
+	}
+
+	/**
+	 * @return the tune
+	 */
+	public VideoTune getTune() {
+		return tune;
+	}
+
+	/**
+	 * @param tune the tune to set
+	 */
+	public void setTune(VideoTune tune) {
+		this.tune = tune;
+	}
+
+	/**
+	 * @return the profile
+	 */
+	public H264Profile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @param profile the profile to set
+	 */
+	public void setProfile(H264Profile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @return the crf
+	 */
+	public Integer getCrf() {
+		return crf;
+	}
+
+	/**
+	 * @param crf the crf to set
+	 */
+	public void setCrf(Integer crf) {
+		this.crf = crf;
+	}
+
+	/**
+	 * @return the maxBitRate
+	 */
+	public Integer getMaxBitRate() {
+		return maxBitRate;
+	}
+
+	/**
+	 * @param maxBitRate the maxBitRate to set
+	 */
+	public void setMaxBitRate(Integer maxBitRate) {
+		this.maxBitRate = maxBitRate;
+	}
+
+	/**
+	 * @return the bufferSize
+	 */
+	public Integer getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @param bufferSize the bufferSize to set
+	 */
+	public void setBufferSize(Integer bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * @return the threads
+	 */
+	public Integer getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @param threads the threads to set
+	 */
+	public void setThreads(Integer threads) {
+		this.threads = threads;
+	}
+
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+import io.github.techgnious.resample.Resampler;
+import io.github.techgnious.resample.Resamplers;
+
+/**
+ * Immutable set of settings for one image resize operation.
+ *
+ * Profiles are built once, e.g. at startup, and passed to every resize call.
+ * As they cannot change after being built, a single IVCompressor can serve
+ * concurrent calls with different profiles.
+ *
+ * <pre>
+ * ImageProfile thumbnail = ImageProfile.builder(ImageFormats.JPG).resolution(ResizeResolution.THUMBNAIL)
+ * 		.resampler(Resamplers.LANCZOS3).build();
+ * </pre>
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class ImageProfile {
+
+	/**
+	 * Format of the output image
+	 */
+	private final ImageFormats format;
+
+	/**
+	 * Width of the output image
+	 */
+	private final int width;
+
+	/**
+	 * Height of the output image
+	 */
+	private final int height;
+
+	/**
+	 * Algorithm used to scale the image
+	 */
+	private final Resampler resampler;
+
+	/**
+	 * Skips resizing of images that are already within the output resolution
+	 */
+	private final boolean retainSmallerImage;
+
+	private ImageProfile(Builder builder) {
+		this.format = builder.format;
+		this.width = builder.width;
+		this.height = builder.height;
+		this.resampler = builder.resampler;
+		this.retainSmallerImage = builder.retainSmallerImage;
+	}
+
+	/**
+	 * Creates a builder with the default resolution and resampler
+	 *
+	 * @param format - format of the output image
+	 * @return - returns a new builder
+	 */
+	public static Builder builder(ImageFormats format) {
+		return new Builder(format);
+	}
+
+	/**
+	 * @return a builder initialised with the settings of this profile
+	 */
+	public Builder toBuilder() {
+		return new Builder(format).size(width, height).resampler(resampler).retainSmallerImage(retainSmallerImage);
+	}
+
+	/**
+	 * @return the format
+	 */
+	public ImageFormats getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the resampler
+	 */
+	public Resampler getResampler() {
+		return resampler;
+	}
+
+	/**
+	 * @return the retainSmallerImage
+	 */
+	public boolean isRetainSmallerImage() {
+		return retainSmallerImage;
+	}
+
+	@Override
+	public String toString() {
+		return "ImageProfile [format=" + format + ", width=" + width + ", height=" + height + ", resampler="
+				+ resampler + ", retainSmallerImage=" + retainSmallerImage + "]";
+	}
+
+	/**
+	 * Builder of {@link ImageProfile}. Not thread safe
+	 */
+	public static final class Builder {
+
+		private ImageFormats format;
+		private int width = ResizeResolution.IMAGE_DEFAULT.getWidth();
+		private int height = ResizeResolution.IMAGE_DEFAULT.getHeight();
+		private Resampler resampler = Resamplers.BILINEAR;
+		private boolean retainSmallerImage;
+
+		private Builder(ImageFormats format) {
+			format(format);
+		}
+
+		/**
+		 * @param format the format to set
+		 * @return this builder
+		 */
+		public Builder format(ImageFormats format) {
+			if (format == null)
+				throw new IllegalArgumentException("No image format specified");
+			this.format = format;
+			return this;
+		}
+
+		/**
+		 * @param resolution the resolution to set. Null keeps the current value
+		 * @return this builder
+		 */
+		public Builder resolution(ResizeResolution resolution) {
+			if (resolution != null)
+				size(resolution.getWidth(), resolution.getHeight());
+			return this;
+		}
+
+		/**
+		 * @param size the custom resolution to set. Null keeps the current value
+		 * @return this builder
+		 */
+		public Builder size(IVSize size) {
+			if (size != null)
+				size(size.getWidth(), size.getHeight());
+			return this;
+		}
+
+		/**
+		 * @param width  the width to set
+		 * @param height the height to set
+		 * @return this builder
+		 */
+		public Builder size(int width, int height) {
+			if (width <= 0 || height <= 0)
+				throw new IllegalArgumentException("Invalid image resolution " + width + "x" + height);
+			this.width = width;
+			this.height = height;
+			return this;
+		}
+
+		/**
+		 * @param resampler the resampler to set
+		 * @return this builder
+		 */
+		public Builder resampler(Resampler resampler) {
+			if (resampler == null)
+				throw new IllegalArgumentException("No resampler specified");
+			this.resampler = resampler;
+			return this;
+		}
+
+		/**
+		 * @param retainSmallerImage the retainSmallerImage to set
+		 * @return this builder
+		 */
+		public Builder retainSmallerImage(boolean retainSmallerImage) {
+			this.retainSmallerImage = retainSmallerImage;
+			return this;
+		}
+
+		/**
+		 * @return the immutable profile
+		 */
+		public ImageProfile build() {
+			return new ImageProfile(this);
+		}
+	}
+}
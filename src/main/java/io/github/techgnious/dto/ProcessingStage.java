@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines the stages of an image or video call reported to an
+ * {@link io.github.techgnious.listener.IVMetricsListener}
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum ProcessingStage {
+
+	/**
+	 * Decoding the source image, subsampled for the target resolution
+	 */
+	IMAGE_DECODE,
+
+	/**
+	 * Scaling the decoded image to the target resolution
+	 */
+	IMAGE_SCALE,
+
+	/**
+	 * Re-rendering the scaled image without its alpha channel, for formats that
+	 * cannot store it, e.g. a transparent PNG written as JPEG
+	 */
+	IMAGE_FLATTEN,
+
+	/**
+	 * Encoding the scaled image in the target format
+	 */
+	IMAGE_ENCODE,
+
+	/**
+	 * Writing the video content to a temp file for ffmpeg
+	 */
+	VIDEO_WRITE,
+
+	/**
+	 * Probing and encoding the video with ffmpeg
+	 */
+	VIDEO_ENCODE,
+
+	/**
+	 * Reading the encoded video back from its temp file
+	 */
+	VIDEO_READ,
+
+	/**
+	 * Saving the result of a call to the requested path
+	 */
+	FILE_SAVE
+}
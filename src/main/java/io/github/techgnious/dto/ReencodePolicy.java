@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines whether a video is re-encoded when its source is
+ * already within the limits of the profile
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum ReencodePolicy {
+
+	/**
+	 * The video is always encoded with the attributes of the profile, even if
+	 * that raises the resolution, bitrate or frame rate of the source
+	 */
+	ALWAYS,
+
+	/**
+	 * The source is probed first and no attribute is ever raised above its
+	 * source value. A source that already has the codecs of the profile and is
+	 * within all its limits is returned unchanged, or remuxed into the output
+	 * format, without being re-encoded.
+	 *
+	 * Sources streamed with {@link TransferMode#PIPES} cannot be probed and are
+	 * always encoded
+	 */
+	NEVER_INCREASE
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines what happens to a task submitted to a worker pool
+ * whose queue is full
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum RejectionPolicy {
+
+	/**
+	 * The task is not run and its future completes exceptionally
+	 */
+	ABORT,
+
+	/**
+	 * The task runs on the submitting thread, slowing down the caller
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * The submitting thread waits until the queue has room for the task
+	 */
+	BLOCK
+}
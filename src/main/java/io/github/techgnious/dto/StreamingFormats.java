@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines the adaptive streaming formats videos can be
+ * packaged in.
+ *
+ * HLS writes MPEG-TS segments with one media playlist per rendition and a
+ * master playlist. DASH writes fragmented MP4 segments described by one
+ * manifest.
+ * 
+ * @author srikanth.anreddy
+ *
+ */
+public enum StreamingFormats {
+
+	HLS("m3u8", "hls", "master.m3u8"), DASH("mpd", "dash", "manifest.mpd");
+
+	/**
+	 * Extension type of the playlist or manifest
+	 */
+	private String type;
+
+	/**
+	 * Name of the ffmpeg format writing the segments
+	 */
+	private String formatName;
+
+	/**
+	 * File name of the playlist or manifest listing all renditions
+	 */
+	private String manifestName;
+
+	StreamingFormats(String type, String formatName, String manifestName) {
+		this.type = type;
+		this.formatName = formatName;
+		this.manifestName = manifestName;
+	}
+
+	/**
+	 * @return the extension type of the playlist or manifest
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return the name of the ffmpeg format writing the segments
+	 */
+	public String getFormatName() {
+		return formatName;
+	}
+
+	/**
+	 * @return the file name of the playlist or manifest listing all renditions
+	 */
+	public String getManifestName() {
+		return manifestName;
+	}
+}
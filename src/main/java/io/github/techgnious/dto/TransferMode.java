@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines how in memory video content is handed to ffmpeg and
+ * read back
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum TransferMode {
+
+	/**
+	 * The content is written to a temporary file, encoded into another temporary
+	 * file and read back. Works with every format
+	 */
+	TEMP_FILES,
+
+	/**
+	 * The content is streamed through the standard input and output of ffmpeg
+	 * without touching the disk.
+	 *
+	 * MP4 and MOV output is written as fragmented MP4, as the regular layout
+	 * needs a seekable output. MP4 and MOV sources must have their index at the
+	 * start of the file (faststart), which is the case for videos written by
+	 * this library. The other formats stream without special care
+	 */
+	PIPES
+}
@@ -23,15 +23,22 @@ package io.github.techgnious.dto;
  */
 public enum VideoFormats {
 
-	MP4("mp4"), MKV("mkv"), FLV("flv"), MOV("mov"), AVI("avi"), WMV("wmv");
+	MP4("mp4", "mp4"), MKV("mkv", "matroska"), FLV("flv", "flv"), MOV("mov", "mov"), AVI("avi", "avi"),
+	WMV("wmv", "asf");
 
 	/**
 	 * Extension type of the video
 	 */
 	private String type;
 
-	VideoFormats(String type) {
+	/**
+	 * Name of the ffmpeg format reading and writing the video
+	 */
+	private String formatName;
+
+	VideoFormats(String type, String formatName) {
 		this.type = type;
+		this.formatName = formatName;
 	}
 
 	/**
@@ -40,4 +47,11 @@ public enum VideoFormats {
 	public String getType() {
 		return type;
 	}
+
+	/**
+	 * @return the name of the ffmpeg format reading and writing the video
+	 */
+	public String getFormatName() {
+		return formatName;
+	}
 }
@@ -0,0 +1,693 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+import io.github.techgnious.constants.IVConstants;
+
+/**
+ * Immutable set of settings for one video encoding operation.
+ *
+ * Profiles are built once, e.g. at startup, and passed to every encode call.
+ * As they cannot change after being built, a single IVCompressor can serve
+ * concurrent calls with different profiles.
+ *
+ * A new builder starts with the default compression settings of the library.
+ * Any attribute set to null is left to ffmpeg, or for the size, kept as in
+ * the source video.
+ * By default the attributes are capped at the values of the source, so a
+ * video is never upscaled or given a higher bitrate, see
+ * {@link ReencodePolicy}.
+ *
+ * <pre>
+ * VideoProfile mobile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R360P)
+ * 		.videoBitRate(300000).build();
+ * </pre>
+ *
+ * The x264 options trade CPU time for output size. A constant rate factor
+ * (crf) switches the encoder from a target bitrate to constant quality; with a
+ * maximum bitrate it becomes capped CRF, e.g. for archiving:
+ *
+ * <pre>
+ * VideoProfile archive = VideoProfile.builder(VideoFormats.MP4).preset(VideoPreset.SLOW)
+ * 		.h264Profile(H264Profile.HIGH).crf(20).maxBitRate(4000000).build();
+ * </pre>
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class VideoProfile {
+
+	/**
+	 * Format of the source video
+	 */
+	private final VideoFormats inputFormat;
+
+	/**
+	 * Format of the output video
+	 */
+	private final VideoFormats outputFormat;
+
+	/**
+	 * Codec of the output video stream
+	 */
+	private final String videoCodec;
+
+	/**
+	 * Bitrate of the output video stream in bits per second
+	 */
+	private final Integer videoBitRate;
+
+	/**
+	 * Frame rate of the output video stream
+	 */
+	private final Integer frameRate;
+
+	/**
+	 * Resolution of the output video stream
+	 */
+	private final IVSize size;
+
+	/**
+	 * H.264 profile of the output video stream, used with the h264 codec only
+	 */
+	private final H264Profile h264Profile;
+
+	/**
+	 * x264 speed preset
+	 */
+	private final VideoPreset preset;
+
+	/**
+	 * x264 tune option
+	 */
+	private final VideoTune tune;
+
+	/**
+	 * Constant rate factor. Replaces the video bitrate when set
+	 */
+	private final Integer crf;
+
+	/**
+	 * Maximum bitrate of the output video stream in bits per second
+	 */
+	private final Integer maxBitRate;
+
+	/**
+	 * Rate control buffer size in bits
+	 */
+	private final Integer bufferSize;
+
+	/**
+	 * Number of encoder threads
+	 */
+	private final Integer threads;
+
+	/**
+	 * Codec of the output audio stream
+	 */
+	private final String audioCodec;
+
+	/**
+	 * Bitrate of the output audio stream in bits per second
+	 */
+	private final Integer audioBitRate;
+
+	/**
+	 * Number of audio channels (1=mono, 2=stereo)
+	 */
+	private final Integer channels;
+
+	/**
+	 * Sampling rate of the output audio stream in Hz
+	 */
+	private final Integer samplingRate;
+
+	/**
+	 * How in memory content is handed to ffmpeg
+	 */
+	private final TransferMode transferMode;
+
+	/**
+	 * Whether sources within the limits of the profile are re-encoded
+	 */
+	private final ReencodePolicy reencodePolicy;
+
+	/**
+	 * Number of segments of a file encoded in parallel
+	 */
+	private final int parallelSegments;
+
+	private VideoProfile(Builder builder) {
+		this.inputFormat = builder.inputFormat;
+		this.outputFormat = builder.outputFormat;
+		this.videoCodec = builder.videoCodec;
+		this.videoBitRate = builder.videoBitRate;
+		this.frameRate = builder.frameRate;
+		this.size = builder.size == null ? null : new IVSize(builder.size.getWidth(), builder.size.getHeight());
+		this.h264Profile = builder.h264Profile;
+		this.preset = builder.preset;
+		this.tune = builder.tune;
+		this.crf = builder.crf;
+		this.maxBitRate = builder.maxBitRate;
+		this.bufferSize = builder.bufferSize;
+		this.threads = builder.threads;
+		this.audioCodec = builder.audioCodec;
+		this.audioBitRate = builder.audioBitRate;
+		this.channels = builder.channels;
+		this.samplingRate = builder.samplingRate;
+		this.transferMode = builder.transferMode;
+		this.reencodePolicy = builder.reencodePolicy;
+		this.parallelSegments = builder.parallelSegments;
+	}
+
+	/**
+	 * Creates a builder with the default compression settings, writing the same
+	 * format as the source
+	 *
+	 * @param format - format of the source and output video
+	 * @return - returns a new builder
+	 */
+	public static Builder builder(VideoFormats format) {
+		return new Builder(format);
+	}
+
+	/**
+	 * Creates a profile converting the video to another format, leaving every
+	 * encoding attribute to ffmpeg
+	 *
+	 * @param inputFormat  - format of the source video
+	 * @param outputFormat - format of the output video
+	 * @return - returns the conversion profile
+	 */
+	public static VideoProfile conversion(VideoFormats inputFormat, VideoFormats outputFormat) {
+		return new Builder(inputFormat).outputFormat(outputFormat).videoCodec(null).videoBitRate(null)
+				.frameRate(null).size(null).h264Profile(null).audioCodec(null).audioBitRate(null).channels(null).samplingRate(null)
+				.build();
+	}
+
+	/**
+	 * @return a builder initialised with the settings of this profile
+	 */
+	public Builder toBuilder() {
+		return new Builder(inputFormat).outputFormat(outputFormat).videoCodec(videoCodec).videoBitRate(videoBitRate)
+				.frameRate(frameRate).size(size).h264Profile(h264Profile).preset(preset).tune(tune).crf(crf)
+				.maxBitRate(maxBitRate).bufferSize(bufferSize).threads(threads).audioCodec(audioCodec).audioBitRate(audioBitRate)
+				.channels(channels).samplingRate(samplingRate).transferMode(transferMode)
+				.reencodePolicy(reencodePolicy).parallelSegments(parallelSegments);
+	}
+
+	/**
+	 * @return true if every encoding attribute is left to ffmpeg, so that the
+	 *         streams may be copied into the output format without re-encoding
+	 */
+	public boolean isConversion() {
+		return videoCodec == null && videoBitRate == null && frameRate == null && size == null && h264Profile == null
+				&& preset == null && tune == null && crf == null && maxBitRate == null && bufferSize == null
+				&& threads == null && audioCodec == null && audioBitRate == null && channels == null
+				&& samplingRate == null;
+	}
+
+	/**
+	 * @return the inputFormat
+	 */
+	public VideoFormats getInputFormat() {
+		return inputFormat;
+	}
+
+	/**
+	 * @return the outputFormat
+	 */
+	public VideoFormats getOutputFormat() {
+		return outputFormat;
+	}
+
+	/**
+	 * @return the videoCodec
+	 */
+	public String getVideoCodec() {
+		return videoCodec;
+	}
+
+	/**
+	 * @return the videoBitRate
+	 */
+	public Integer getVideoBitRate() {
+		return videoBitRate;
+	}
+
+	/**
+	 * @return the frameRate
+	 */
+	public Integer getFrameRate() {
+		return frameRate;
+	}
+
+	/**
+	 * @return a copy of the size, or null to keep the source size
+	 */
+	public IVSize getSize() {
+		return size == null ? null : new IVSize(size.getWidth(), size.getHeight());
+	}
+
+	/**
+	 * @return the h264Profile
+	 */
+	public H264Profile getH264Profile() {
+		return h264Profile;
+	}
+
+	/**
+	 * @return the preset
+	 */
+	public VideoPreset getPreset() {
+		return preset;
+	}
+
+	/**
+	 * @return the tune
+	 */
+	public VideoTune getTune() {
+		return tune;
+	}
+
+	/**
+	 * @return the crf
+	 */
+	public Integer getCrf() {
+		return crf;
+	}
+
+	/**
+	 * @return the maxBitRate
+	 */
+	public Integer getMaxBitRate() {
+		return maxBitRate;
+	}
+
+	/**
+	 * @return the bufferSize, or null for twice the maxBitRate
+	 */
+	public Integer getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @return the threads
+	 */
+	public Integer getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return the audioCodec
+	 */
+	public String getAudioCodec() {
+		return audioCodec;
+	}
+
+	/**
+	 * @return the audioBitRate
+	 */
+	public Integer getAudioBitRate() {
+		return audioBitRate;
+	}
+
+	/**
+	 * @return the channels
+	 */
+	public Integer getChannels() {
+		return channels;
+	}
+
+	/**
+	 * @return the samplingRate
+	 */
+	public Integer getSamplingRate() {
+		return samplingRate;
+	}
+
+	/**
+	 * @return the transferMode
+	 */
+	public TransferMode getTransferMode() {
+		return transferMode;
+	}
+
+	/**
+	 * @return the reencodePolicy
+	 */
+	public ReencodePolicy getReencodePolicy() {
+		return reencodePolicy;
+	}
+
+	/**
+	 * @return the parallelSegments
+	 */
+	public int getParallelSegments() {
+		return parallelSegments;
+	}
+
+	@Override
+	public String toString() {
+		return "VideoProfile [inputFormat=" + inputFormat + ", outputFormat=" + outputFormat + ", videoCodec="
+				+ videoCodec + ", videoBitRate=" + videoBitRate + ", frameRate=" + frameRate + ", size="
+				+ (size == null ? null : size.getWidth() + "x" + size.getHeight()) + ", h264Profile=" + h264Profile
+				+ ", preset=" + preset + ", tune=" + tune + ", crf=" + crf + ", maxBitRate=" + maxBitRate
+				+ ", bufferSize=" + bufferSize + ", threads=" + threads + ", audioCodec=" + audioCodec
+				+ ", audioBitRate=" + audioBitRate + ", channels=" + channels + ", samplingRate=" + samplingRate
+				+ ", transferMode=" + transferMode + ", reencodePolicy=" + reencodePolicy
+				+ ", parallelSegments=" + parallelSegments + "]";
+	}
+
+	/**
+	 * Builder of {@link VideoProfile}. Not thread safe
+	 */
+	public static final class Builder {
+
+		private VideoFormats inputFormat;
+		private VideoFormats outputFormat;
+		private String videoCodec = IVConstants.VIDEO_CODEC;
+		// Here 160 kbps video is 160000
+		private Integer videoBitRate = 160000;
+		// More the frames more quality and size, but keep it low based on devices like
+		// mobile
+		private Integer frameRate = 15;
+		private IVSize size = new IVSize(ResizeResolution.VIDEO_DEFAULT.getWidth(),
+				ResizeResolution.VIDEO_DEFAULT.getHeight());
+		// baseline plays on every device, at the cost of compression
+		private H264Profile h264Profile = H264Profile.BASELINE;
+		private VideoPreset preset;
+		private VideoTune tune;
+		private Integer crf;
+		private Integer maxBitRate;
+		private Integer bufferSize;
+		private Integer threads;
+		private String audioCodec = IVConstants.AUDIO_CODEC;
+		// here 64kbit/s is 64000
+		private Integer audioBitRate = 64000;
+		private Integer channels = 2;
+		private Integer samplingRate = 44100;
+		private TransferMode transferMode = TransferMode.TEMP_FILES;
+		private ReencodePolicy reencodePolicy = ReencodePolicy.NEVER_INCREASE;
+		private int parallelSegments = 1;
+
+		private Builder(VideoFormats format) {
+			inputFormat(format);
+			outputFormat(format);
+		}
+
+		/**
+		 * @param inputFormat the inputFormat to set
+		 * @return this builder
+		 */
+		public Builder inputFormat(VideoFormats inputFormat) {
+			if (inputFormat == null)
+				throw new IllegalArgumentException("No input video format specified");
+			this.inputFormat = inputFormat;
+			return this;
+		}
+
+		/**
+		 * @param outputFormat the outputFormat to set
+		 * @return this builder
+		 */
+		public Builder outputFormat(VideoFormats outputFormat) {
+			if (outputFormat == null)
+				throw new IllegalArgumentException("No output video format specified");
+			this.outputFormat = outputFormat;
+			return this;
+		}
+
+		/**
+		 * @param videoCodec the videoCodec to set
+		 * @return this builder
+		 */
+		public Builder videoCodec(String videoCodec) {
+			this.videoCodec = videoCodec;
+			return this;
+		}
+
+		/**
+		 * @param videoBitRate the videoBitRate to set
+		 * @return this builder
+		 */
+		public Builder videoBitRate(Integer videoBitRate) {
+			this.videoBitRate = videoBitRate;
+			return this;
+		}
+
+		/**
+		 * @param frameRate the frameRate to set
+		 * @return this builder
+		 */
+		public Builder frameRate(Integer frameRate) {
+			this.frameRate = frameRate;
+			return this;
+		}
+
+		/**
+		 * @param resolution the resolution to set. Null keeps the source size
+		 * @return this builder
+		 */
+		public Builder resolution(ResizeResolution resolution) {
+			this.size = resolution == null ? null : new IVSize(resolution.getWidth(), resolution.getHeight());
+			return this;
+		}
+
+		/**
+		 * @param size the custom resolution to set. Null keeps the source size
+		 * @return this builder
+		 */
+		public Builder size(IVSize size) {
+			if (size != null && (size.getWidth() <= 0 || size.getHeight() <= 0))
+				throw new IllegalArgumentException(
+						"Invalid video resolution " + size.getWidth() + "x" + size.getHeight());
+			this.size = size == null ? null : new IVSize(size.getWidth(), size.getHeight());
+			return this;
+		}
+
+		/**
+		 * @param h264Profile the H.264 profile to set. Null leaves it to the
+		 *                    encoder
+		 * @return this builder
+		 */
+		public Builder h264Profile(H264Profile h264Profile) {
+			this.h264Profile = h264Profile;
+			return this;
+		}
+
+		/**
+		 * @param preset the x264 speed preset to set. Null leaves it to the encoder
+		 * @return this builder
+		 */
+		public Builder preset(VideoPreset preset) {
+			this.preset = preset;
+			return this;
+		}
+
+		/**
+		 * @param tune the x264 tune option to set. Can be null
+		 * @return this builder
+		 */
+		public Builder tune(VideoTune tune) {
+			this.tune = tune;
+			return this;
+		}
+
+		/**
+		 * Switches to constant quality encoding, replacing the video bitrate
+		 *
+		 * @param crf the constant rate factor to set, from 0 (lossless) to 51.
+		 *            Null encodes at the video bitrate
+		 * @return this builder
+		 */
+		public Builder crf(Integer crf) {
+			if (crf != null && (crf < 0 || crf > 51))
+				throw new IllegalArgumentException("Invalid constant rate factor " + crf);
+			this.crf = crf;
+			return this;
+		}
+
+		/**
+		 * @param maxBitRate the maximum video bitrate to set. Together with a crf it
+		 *                   caps the bitrate of constant quality encoding
+		 * @return this builder
+		 */
+		public Builder maxBitRate(Integer maxBitRate) {
+			if (maxBitRate != null && maxBitRate <= 0)
+				throw new IllegalArgumentException("Invalid maximum bitrate " + maxBitRate);
+			this.maxBitRate = maxBitRate;
+			return this;
+		}
+
+		/**
+		 * @param bufferSize the rate control buffer size to set. Null uses twice
+		 *                   the maximum bitrate
+		 * @return this builder
+		 */
+		public Builder bufferSize(Integer bufferSize) {
+			if (bufferSize != null && bufferSize <= 0)
+				throw new IllegalArgumentException("Invalid buffer size " + bufferSize);
+			this.bufferSize = bufferSize;
+			return this;
+		}
+
+		/**
+		 * @param threads the number of encoder threads to set. Null leaves it to
+		 *                ffmpeg
+		 * @return this builder
+		 */
+		public Builder threads(Integer threads) {
+			if (threads != null && threads <= 0)
+				throw new IllegalArgumentException("Invalid number of threads " + threads);
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * Copies the non null values of the attributes into this builder
+		 *
+		 * @param videoAttributes the video attributes to apply. Can be null
+		 * @return this builder
+		 */
+		public Builder videoAttributes(IVVideoAttributes videoAttributes) {
+			if (videoAttributes != null) {
+				if (videoAttributes.getBitRate() != null)
+					videoBitRate(videoAttributes.getBitRate());
+				if (videoAttributes.getFrameRate() != null)
+					frameRate(videoAttributes.getFrameRate());
+				if (videoAttributes.getSize() != null)
+					size(videoAttributes.getSize());
+				if (videoAttributes.getProfile() != null)
+					h264Profile(videoAttributes.getProfile());
+				if (videoAttributes.getPreset() != null)
+					preset(videoAttributes.getPreset());
+				if (videoAttributes.getTune() != null)
+					tune(videoAttributes.getTune());
+				if (videoAttributes.getCrf() != null)
+					crf(videoAttributes.getCrf());
+				if (videoAttributes.getMaxBitRate() != null)
+					maxBitRate(videoAttributes.getMaxBitRate());
+				if (videoAttributes.getBufferSize() != null)
+					bufferSize(videoAttributes.getBufferSize());
+				if (videoAttributes.getThreads() != null)
+					threads(videoAttributes.getThreads());
+			}
+			return this;
+		}
+
+		/**
+		 * @param audioCodec the audioCodec to set
+		 * @return this builder
+		 */
+		public Builder audioCodec(String audioCodec) {
+			this.audioCodec = audioCodec;
+			return this;
+		}
+
+		/**
+		 * @param audioBitRate the audioBitRate to set
+		 * @return this builder
+		 */
+		public Builder audioBitRate(Integer audioBitRate) {
+			this.audioBitRate = audioBitRate;
+			return this;
+		}
+
+		/**
+		 * @param channels the channels to set
+		 * @return this builder
+		 */
+		public Builder channels(Integer channels) {
+			this.channels = channels;
+			return this;
+		}
+
+		/**
+		 * @param samplingRate the samplingRate to set
+		 * @return this builder
+		 */
+		public Builder samplingRate(Integer samplingRate) {
+			this.samplingRate = samplingRate;
+			return this;
+		}
+
+		/**
+		 * Copies the non null values of the attributes into this builder
+		 *
+		 * @param audioAttributes the audio attributes to apply. Can be null
+		 * @return this builder
+		 */
+		public Builder audioAttributes(IVAudioAttributes audioAttributes) {
+			if (audioAttributes != null) {
+				if (audioAttributes.getBitRate() != null)
+					audioBitRate(audioAttributes.getBitRate());
+				if (audioAttributes.getChannels() != null)
+					channels(audioAttributes.getChannels());
+				if (audioAttributes.getSamplingRate() != null)
+					samplingRate(audioAttributes.getSamplingRate());
+			}
+			return this;
+		}
+
+		/**
+		 * @param transferMode the transferMode to set
+		 * @return this builder
+		 */
+		public Builder transferMode(TransferMode transferMode) {
+			if (transferMode == null)
+				throw new IllegalArgumentException("No transfer mode specified");
+			this.transferMode = transferMode;
+			return this;
+		}
+
+		/**
+		 * @param reencodePolicy the reencodePolicy to set
+		 * @return this builder
+		 */
+		public Builder reencodePolicy(ReencodePolicy reencodePolicy) {
+			if (reencodePolicy == null)
+				throw new IllegalArgumentException("No re-encode policy specified");
+			this.reencodePolicy = reencodePolicy;
+			return this;
+		}
+
+		/**
+		 * Splits video files into segments at keyframes, encodes the segments
+		 * concurrently and joins them without re-encoding. The audio is encoded
+		 * once for the whole video. Videos too short to give every segment a few
+		 * seconds use fewer segments. Only applies to encodes between files,
+		 * including the temp files of in memory content
+		 *
+		 * @param parallelSegments the number of segments to set. 1 encodes the
+		 *                         video in one piece
+		 * @return this builder
+		 */
+		public Builder parallelSegments(int parallelSegments) {
+			if (parallelSegments < 1)
+				throw new IllegalArgumentException("Invalid number of segments " + parallelSegments);
+			this.parallelSegments = parallelSegments;
+			return this;
+		}
+
+		/**
+		 * @return the immutable profile
+		 */
+		public VideoProfile build() {
+			return new VideoProfile(this);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.dto;
+
+/**
+ * Enum Class that defines the x264 tune options, adapting the encoder to the
+ * type of content
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum VideoTune {
+
+	FILM("film"), ANIMATION("animation"), GRAIN("grain"), STILL_IMAGE("stillimage"), FAST_DECODE("fastdecode"),
+	ZERO_LATENCY("zerolatency");
+
+	/**
+	 * Name of the tune option in ffmpeg
+	 */
+	private String name;
+
+	VideoTune(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the name of the tune option in ffmpeg
+	 */
+	public String getName() {
+		return name;
+	}
+}
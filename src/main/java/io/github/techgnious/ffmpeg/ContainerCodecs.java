@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.techgnious.dto.VideoFormats;
+
+/**
+ * Table of the codecs each container can carry without re-encoding.
+ *
+ * The table is deliberately conservative: a stream is only copied when ffmpeg
+ * is known to mux it into the container as it is, without bitstream
+ * conversions that depend on the source. H.264 is for example not copied into
+ * AVI, which expects a different framing than MP4 and Matroska sources use.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class ContainerCodecs {
+
+	private static final Map<VideoFormats, Set<String>> VIDEO_CODECS = new EnumMap<>(VideoFormats.class);
+
+	private static final Map<VideoFormats, Set<String>> AUDIO_CODECS = new EnumMap<>(VideoFormats.class);
+
+	static {
+		register(VideoFormats.MP4, codecs("h264", "hevc", "mpeg4", "av1", "vp9"),
+				codecs("aac", "mp3", "ac3", "eac3", "alac"));
+		register(VideoFormats.MOV, codecs("h264", "hevc", "mpeg4", "prores", "mjpeg"),
+				codecs("aac", "mp3", "ac3", "alac", "pcm_s16le", "pcm_s16be"));
+		register(VideoFormats.MKV,
+				codecs("h264", "hevc", "mpeg4", "vp8", "vp9", "av1", "mpeg2video", "theora", "mjpeg"),
+				codecs("aac", "mp3", "ac3", "eac3", "opus", "vorbis", "flac", "alac", "pcm_s16le"));
+		register(VideoFormats.FLV, codecs("h264", "flv1"), codecs("aac", "mp3"));
+		register(VideoFormats.AVI, codecs("mpeg4", "msmpeg4v2", "mjpeg"), codecs("mp3", "ac3", "pcm_s16le"));
+		register(VideoFormats.WMV, codecs("wmv1", "wmv2", "wmv3"), codecs("wmav1", "wmav2"));
+	}
+
+	private ContainerCodecs() {
+	}
+
+	/**
+	 * Checks whether the streams can be copied into the container unchanged
+	 *
+	 * @param format     - format of the output container
+	 * @param videoCodec - codec of the source video stream as reported by ffmpeg,
+	 *                   e.g. "h264 (High) (avc1 / 0x31637661)". Null if the
+	 *                   source has no video
+	 * @param audioCodec - codec of the source audio stream as reported by ffmpeg.
+	 *                   Null if the source has no audio
+	 * @return - returns true if the container carries both streams
+	 */
+	public static boolean canCarry(VideoFormats format, String videoCodec, String audioCodec) {
+		if (videoCodec == null && audioCodec == null)
+			return false;
+		return (videoCodec == null || VIDEO_CODECS.get(format).contains(codecName(videoCodec)))
+				&& (audioCodec == null || AUDIO_CODECS.get(format).contains(codecName(audioCodec)));
+	}
+
+	/**
+	 * Strips the profile and tag details ffmpeg prints after the codec name
+	 *
+	 * @param codec
+	 * @return - returns the codec name
+	 */
+	private static String codecName(String codec) {
+		String name = codec.trim();
+		int end = name.indexOf(' ');
+		return end < 0 ? name : name.substring(0, end);
+	}
+
+	private static void register(VideoFormats format, Set<String> videoCodecs, Set<String> audioCodecs) {
+		VIDEO_CODECS.put(format, videoCodecs);
+		AUDIO_CODECS.put(format, audioCodecs);
+	}
+
+	private static Set<String> codecs(String... names) {
+		return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(names)));
+	}
+}
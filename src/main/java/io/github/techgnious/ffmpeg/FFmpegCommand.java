@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import io.github.techgnious.constants.IVConstants;
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoProfile;
+
+/**
+ * Builder of the arguments of one ffmpeg run.
+ *
+ * Arguments are added in command line order: input options and inputs first,
+ * then the options of each output followed by the output itself.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class FFmpegCommand {
+
+	/**
+	 * Location of ffmpeg's standard input
+	 */
+	public static final String STDIN = "pipe:0";
+
+	/**
+	 * Location of ffmpeg's standard output
+	 */
+	public static final String STDOUT = "pipe:1";
+
+	private final List<String> arguments = new ArrayList<>();
+
+	/**
+	 * Appends the arguments as they are
+	 *
+	 * @param args - arguments to append
+	 * @return this command
+	 */
+	public FFmpegCommand add(String... args) {
+		Collections.addAll(arguments, args);
+		return this;
+	}
+
+	/**
+	 * Appends the option with its value, unless the value is null
+	 *
+	 * @param option - name of the option, e.g. "-b:v"
+	 * @param value  - value of the option. Can be null
+	 * @return this command
+	 */
+	public FFmpegCommand addOption(String option, Object value) {
+		if (value != null)
+			add(option, value.toString());
+		return this;
+	}
+
+	/**
+	 * Appends an input in the given format
+	 *
+	 * @param format   - format of the input
+	 * @param location - file path or {@link #STDIN}
+	 * @return this command
+	 */
+	public FFmpegCommand input(VideoFormats format, String location) {
+		return add("-f", format.getFormatName(), "-i", location);
+	}
+
+	/**
+	 * Appends an input read from the given position on. The input is seeked to
+	 * the last keyframe before the position, and only the frames from there on
+	 * are decoded
+	 *
+	 * @param position - position to start reading from
+	 * @param location - file path of the input
+	 * @return this command
+	 */
+	public FFmpegCommand inputAt(Duration position, String location) {
+		return add("-ss", toSeconds(position), "-i", location);
+	}
+
+	/**
+	 * Appends the encoding options of the profile for the next output. With a
+	 * constant rate factor, the video bitrate of the profile is not used
+	 *
+	 * @param profile - encoding attributes of the output
+	 * @return this command
+	 */
+	public FFmpegCommand encode(VideoProfile profile) {
+		return encodeVideo(profile).encodeAudio(profile);
+	}
+
+	/**
+	 * Appends the video encoding options of the profile for the next output
+	 *
+	 * @param profile - encoding attributes of the output
+	 * @return this command
+	 */
+	public FFmpegCommand encodeVideo(VideoProfile profile) {
+		return encodeVideo(profile, -1);
+	}
+
+	/**
+	 * Appends the video encoding options of the profile for one video stream of
+	 * the next output, for outputs holding several renditions
+	 *
+	 * @param profile - encoding attributes of the stream
+	 * @param stream  - index of the video stream in the output. Negative applies
+	 *                the options to every video stream
+	 * @return this command
+	 */
+	public FFmpegCommand encodeVideo(VideoProfile profile, int stream) {
+		String videoCodec = profile.getVideoCodec();
+		// an H.264 profile asks for the H.264 encoder when the codec is left to ffmpeg
+		if (videoCodec == null && profile.getH264Profile() != null)
+			videoCodec = IVConstants.VIDEO_CODEC;
+		addOption(forStream("-c:v", "v", stream), videoCodec);
+		if (IVConstants.VIDEO_CODEC.equals(videoCodec) && profile.getH264Profile() != null)
+			add(forStream("-profile:v", "v", stream), profile.getH264Profile().getName());
+		if (profile.getPreset() != null)
+			add(forStream("-preset", "v", stream), profile.getPreset().getName());
+		if (profile.getTune() != null)
+			add(forStream("-tune", "v", stream), profile.getTune().getName());
+		// x264 ignores the crf once a bitrate is given
+		if (profile.getCrf() != null)
+			addOption(forStream("-crf", "v", stream), profile.getCrf());
+		else
+			addOption(forStream("-b:v", "v", stream), profile.getVideoBitRate());
+		Integer maxBitRate = profile.getMaxBitRate();
+		if (maxBitRate != null) {
+			addOption(forStream("-maxrate", "v", stream), maxBitRate);
+			addOption(forStream("-bufsize", "v", stream),
+					profile.getBufferSize() != null ? profile.getBufferSize() : 2L * maxBitRate);
+		}
+		addOption(forStream("-threads", "v", stream), profile.getThreads());
+		addOption(forStream("-r", "v", stream), profile.getFrameRate());
+		IVSize size = profile.getSize();
+		if (size != null)
+			add(forStream("-s", "v", stream), size.getWidth() + "x" + size.getHeight());
+		return this;
+	}
+
+	/**
+	 * Appends the audio encoding options of the profile for the next output
+	 *
+	 * @param profile - encoding attributes of the output
+	 * @return this command
+	 */
+	public FFmpegCommand encodeAudio(VideoProfile profile) {
+		return encodeAudio(profile, -1);
+	}
+
+	/**
+	 * Appends the audio encoding options of the profile for one audio stream of
+	 * the next output
+	 *
+	 * @param profile - encoding attributes of the stream
+	 * @param stream  - index of the audio stream in the output. Negative applies
+	 *                the options to every audio stream
+	 * @return this command
+	 */
+	public FFmpegCommand encodeAudio(VideoProfile profile, int stream) {
+		addOption(forStream("-c:a", "a", stream), profile.getAudioCodec());
+		addOption(forStream("-b:a", "a", stream), profile.getAudioBitRate());
+		addOption(forStream("-ac", "a", stream), profile.getChannels());
+		addOption(forStream("-ar", "a", stream), profile.getSamplingRate());
+		return this;
+	}
+
+	/**
+	 * Appends the options copying the video and audio streams into the next
+	 * output without re-encoding. Subtitle and data streams are dropped, as few
+	 * containers can carry them unchanged
+	 *
+	 * @return this command
+	 */
+	public FFmpegCommand copyStreams() {
+		return add("-c", "copy", "-sn", "-dn");
+	}
+
+	/**
+	 * Appends an output in the given format, overwriting existing files.
+	 *
+	 * MP4 and MOV files get their index moved to the start for progressive
+	 * playback. When written to {@link #STDOUT}, they are fragmented instead, as
+	 * the index cannot be written back into a pipe.
+	 *
+	 * @param format   - format of the output
+	 * @param location - file path or {@link #STDOUT}
+	 * @return this command
+	 */
+	public FFmpegCommand output(VideoFormats format, String location) {
+		if (format == VideoFormats.MP4 || format == VideoFormats.MOV)
+			add("-movflags", STDOUT.equals(location) ? "frag_keyframe+empty_moov+default_base_moof" : "faststart");
+		return add("-f", format.getFormatName(), "-y", location);
+	}
+
+	/**
+	 * Appends an output holding a single image, taken from the first frame of
+	 * the mapped video
+	 *
+	 * @param size     - size of the image. Null keeps the size of the video
+	 * @param format   - format of the image
+	 * @param location - file path or {@link #STDOUT}
+	 * @return this command
+	 */
+	public FFmpegCommand outputImage(IVSize size, ImageFormats format, String location) {
+		add("-frames:v", "1");
+		if (size != null)
+			add("-vf", "scale=" + size.getWidth() + ":" + size.getHeight());
+		if (format == ImageFormats.PNG)
+			add("-c:v", "png");
+		else
+			add("-c:v", "mjpeg", "-q:v", "2");
+		return add("-f", STDOUT.equals(location) ? "image2pipe" : "image2", "-y", location);
+	}
+
+	/**
+	 * @param duration - duration to format
+	 * @return - returns the duration in seconds as ffmpeg reads it, e.g. 4.250
+	 */
+	public static String toSeconds(Duration duration) {
+		return String.format(Locale.ROOT, "%.3f", duration.toMillis() / 1000.0);
+	}
+
+	/**
+	 * Appends the stream specifier to the option, e.g. "-b:v" and "-preset"
+	 * become "-b:v:1" and "-preset:v:1" for the second video stream
+	 *
+	 * @param option - name of the option
+	 * @param type   - stream type, "v" or "a"
+	 * @param stream - index of the stream. Negative keeps the option as it is
+	 * @return - returns the option name
+	 */
+	private static String forStream(String option, String type, int stream) {
+		if (stream < 0)
+			return option;
+		return (option.endsWith(":" + type) ? option : option + ":" + type) + ":" + stream;
+	}
+
+	/**
+	 * @return the arguments added so far
+	 */
+	public List<String> getArguments() {
+		return Collections.unmodifiableList(arguments);
+	}
+
+	@Override
+	public String toString() {
+		return String.join(" ", arguments);
+	}
+}
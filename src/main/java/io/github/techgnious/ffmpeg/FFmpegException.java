@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when an ffmpeg run exits with a non-zero code
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public class FFmpegException extends IOException {
+
+	private static final long serialVersionUID = -2381764215937820461L;
+
+	private final int exitCode;
+
+	/**
+	 * @param exitCode - exit code of ffmpeg
+	 * @param log      - last lines of the log of ffmpeg
+	 */
+	public FFmpegException(int exitCode, String log) {
+		super("ffmpeg exited with code " + exitCode + ": " + log);
+		this.exitCode = exitCode;
+	}
+
+	/**
+	 * @return the exit code of ffmpeg
+	 */
+	public int getExitCode() {
+		return exitCode;
+	}
+
+	/**
+	 * Looks up the exit code of a failed ffmpeg run in the causes of an exception
+	 *
+	 * @param e - exception thrown by a video call
+	 * @return - returns the exit code, or null if the exception was not caused by
+	 *         ffmpeg exiting with an error
+	 */
+	public static Integer findExitCode(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof FFmpegException)
+				return ((FFmpegException) cause).getExitCode();
+		}
+		return null;
+	}
+}
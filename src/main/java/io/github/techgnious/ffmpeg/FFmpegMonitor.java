@@ -0,0 +1,370 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.github.techgnious.dto.IVProgress;
+import io.github.techgnious.listener.IVProgressListener;
+
+/**
+ * Tracks the ffmpeg runs of one job, reporting their progress and killing them
+ * on cancellation.
+ *
+ * The progress is read from the statistics ffmpeg writes to its log. The
+ * processed time and the frames of all tracked runs add up, so that videos
+ * encoded in parallel segments report the progress of the whole video. Runs
+ * copying streams around an encode use an {@link #untracked()} view, which
+ * shares the cancellation only. Runs that have to be cancelled on their own,
+ * e.g. the segments of one encode, use a {@link #child()} monitor.
+ *
+ * Once cancelled, running processes are destroyed and further runs fail
+ * before they start. Instances are thread safe.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class FFmpegMonitor {
+
+	/**
+	 * Length of the first input, e.g. "  Duration: 00:01:02.50, start: 0.000000"
+	 */
+	private static final Pattern DURATION = Pattern.compile("^\\s*Duration: (\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
+
+	/**
+	 * Position of the statistics line, e.g. "frame= 250 fps= 98 ... time=00:00:10.00
+	 * bitrate= 420.1kbits/s speed=3.9x"
+	 */
+	private static final Pattern TIME = Pattern.compile("time=\\s*(\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
+
+	private static final Pattern FRAME = Pattern.compile("^frame=\\s*(\\d+)");
+
+	/**
+	 * Monitor holding the state of the job, this instance unless it is an
+	 * untracked view
+	 */
+	private final FFmpegMonitor job;
+
+	/**
+	 * Monitor holding the cancellation of the runs of this instance, the job or
+	 * a child monitor
+	 */
+	private final FFmpegMonitor owner;
+
+	private final boolean tracked;
+
+	private final IVProgressListener listener;
+
+	private final long startNanos;
+
+	/**
+	 * Runs started so far through the owner, or for the job through any of its
+	 * monitors. Null for views. Guarded by the job monitor
+	 */
+	private final List<Run> runs;
+
+	/**
+	 * Length of the video in milliseconds, or -1 if not known. Guarded by the job
+	 * monitor
+	 */
+	private long totalMillis = -1;
+
+	private volatile boolean cancelled;
+
+	private volatile IVProgress progress;
+
+	/**
+	 * @param listener - receives the progress of the job. Can be null
+	 */
+	public FFmpegMonitor(IVProgressListener listener) {
+		this.job = this;
+		this.owner = this;
+		this.tracked = true;
+		this.listener = listener;
+		this.startNanos = System.nanoTime();
+		this.runs = new ArrayList<>();
+	}
+
+	/**
+	 * @param job     - monitor holding the progress
+	 * @param owner   - monitor holding the cancellation, or null for a new child
+	 *                monitor
+	 * @param tracked - whether the runs count towards the progress
+	 */
+	private FFmpegMonitor(FFmpegMonitor job, FFmpegMonitor owner, boolean tracked) {
+		this.job = job;
+		this.owner = owner != null ? owner : this;
+		this.tracked = tracked;
+		this.listener = null;
+		this.startNanos = job.startNanos;
+		this.runs = owner != null ? null : new ArrayList<>();
+	}
+
+	/**
+	 * @return - returns a view of this monitor whose runs can be cancelled, but
+	 *         do not count towards the progress
+	 */
+	public FFmpegMonitor untracked() {
+		return new FFmpegMonitor(job, owner, false);
+	}
+
+	/**
+	 * @return - returns a monitor whose runs count towards the progress of this
+	 *         one and can be cancelled without cancelling this one. Cancelling
+	 *         this monitor cancels the child as well
+	 */
+	public FFmpegMonitor child() {
+		return new FFmpegMonitor(job, null, tracked);
+	}
+
+	/**
+	 * Sets the length of the video. Without it, the length of the first input is
+	 * read from the log of the first tracked run
+	 *
+	 * @param total - length of the video
+	 */
+	public void setTotal(Duration total) {
+		synchronized (job) {
+			job.totalMillis = total.toMillis();
+		}
+	}
+
+	/**
+	 * Destroys the running processes and fails the runs started later
+	 */
+	public void cancel() {
+		synchronized (job) {
+			owner.cancelled = true;
+			for (Run run : owner.runs)
+				run.destroy();
+		}
+	}
+
+	/**
+	 * @return true if the job or, for a child monitor, the child was cancelled
+	 */
+	public boolean isCancelled() {
+		return owner.cancelled || job.cancelled;
+	}
+
+	/**
+	 * Waits until every run started through this monitor has ended and its
+	 * process has exited. Once the monitor is cancelled, no further runs start,
+	 * so that their files can be deleted afterwards.
+	 *
+	 * The wait is not interruptible, as the processes exit quickly once
+	 * destroyed. An interrupt is kept for the caller
+	 */
+	public void awaitRuns() {
+		boolean interrupted = false;
+		synchronized (job) {
+			while (!isClosed(owner.runs)) {
+				try {
+					job.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private static boolean isClosed(List<Run> runs) {
+		for (Run run : runs) {
+			if (!run.closed)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the latest progress of the job, or null before the first report
+	 */
+	public IVProgress getProgress() {
+		return job.progress;
+	}
+
+	/**
+	 * Starts the process, unless the job is cancelled
+	 *
+	 * @param process - process ready to be started
+	 * @return - returns the run of the process
+	 * @throws IOException - throws exception if the job is cancelled or the
+	 *                     process cannot be started
+	 */
+	Run start(FFmpegProcess process) throws IOException {
+		synchronized (job) {
+			checkCancelled();
+			// started under the lock, so that a concurrent cancel cannot miss it
+			process.start();
+			Run run = new Run(process, tracked);
+			owner.runs.add(run);
+			if (owner != job)
+				job.runs.add(run);
+			return run;
+		}
+	}
+
+	/**
+	 * @throws IOException - throws exception if the job is cancelled
+	 */
+	void checkCancelled() throws IOException {
+		if (isCancelled())
+			throw new IOException("ffmpeg run was cancelled");
+	}
+
+	/**
+	 * Reads the progress from a line of the log of a run and reports it
+	 *
+	 * @param run
+	 * @param line
+	 */
+	private void onLine(Run run, String line) {
+		IVProgress snapshot;
+		synchronized (this) {
+			Matcher time = TIME.matcher(line);
+			if (!line.contains("speed=") || !time.find()) {
+				Matcher duration = DURATION.matcher(line);
+				if (totalMillis < 0 && duration.find())
+					totalMillis = toMillis(duration);
+				return;
+			}
+			run.processedMillis = toMillis(time);
+			Matcher frame = FRAME.matcher(line);
+			if (frame.find())
+				run.frames = Long.parseLong(frame.group(1));
+			long processedMillis = 0;
+			long frames = 0;
+			for (Run started : runs) {
+				processedMillis += started.processedMillis;
+				frames += started.frames;
+			}
+			snapshot = new IVProgress(Duration.ofMillis(processedMillis),
+					totalMillis < 0 ? null : Duration.ofMillis(totalMillis), frames,
+					Duration.ofNanos(System.nanoTime() - startNanos));
+			progress = snapshot;
+		}
+		if (listener != null)
+			listener.onProgress(snapshot);
+	}
+
+	/**
+	 * @param matcher - matcher of hours, minutes and seconds
+	 * @return - returns the time in milliseconds
+	 */
+	private static long toMillis(Matcher matcher) {
+		return (Long.parseLong(matcher.group(1)) * 3600 + Long.parseLong(matcher.group(2)) * 60) * 1000
+				+ Math.round(Double.parseDouble(matcher.group(3)) * 1000);
+	}
+
+	/**
+	 * One ffmpeg process of the job
+	 */
+	final class Run {
+
+		private final FFmpegProcess process;
+
+		private final boolean tracked;
+
+		/**
+		 * Progress of the process. Guarded by the job monitor
+		 */
+		private long processedMillis;
+		private long frames;
+
+		/**
+		 * Guarded by the job monitor
+		 */
+		private boolean destroyed;
+
+		/**
+		 * Whether the run has ended. Guarded by the job monitor
+		 */
+		private boolean closed;
+
+		private Run(FFmpegProcess process, boolean tracked) {
+			this.process = process;
+			this.tracked = tracked;
+		}
+
+		/**
+		 * @param line - line of the log of the process
+		 */
+		void onLog(String line) {
+			if (tracked)
+				job.onLine(this, line);
+		}
+
+		/**
+		 * Waits for the end of the process. The job monitor is not held while
+		 * waiting, so that the sibling runs keep reporting their progress and the
+		 * job can be cancelled meanwhile
+		 *
+		 * @return - returns the exit code
+		 * @throws IOException          - throws exception if the job was cancelled
+		 * @throws InterruptedException - throws exception if interrupted while
+		 *                              waiting
+		 */
+		int getExitCode() throws IOException, InterruptedException {
+			synchronized (job) {
+				checkCancelled();
+			}
+			// the log is drained, so the process is already exiting
+			return process.waitFor();
+		}
+
+		/**
+		 * Destroys the process and waits until it has exited, e.g. after a cancel
+		 * while ffmpeg still flushes its output
+		 */
+		void close() {
+			synchronized (job) {
+				destroy();
+			}
+			boolean interrupted = false;
+			while (true) {
+				try {
+					process.waitFor();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			synchronized (job) {
+				closed = true;
+				job.notifyAll();
+			}
+		}
+
+		/**
+		 * Destroys the process once. Must hold the job monitor
+		 */
+		private void destroy() {
+			if (!destroyed) {
+				destroyed = true;
+				process.destroy();
+			}
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import ws.schild.jave.process.ProcessKiller;
+
+/**
+ * One ffmpeg process.
+ *
+ * Unlike the process wrapper of jave, it keeps the {@link Process} after it is
+ * destroyed, so that one thread can wait for the end of the process while
+ * another destroys it. Instances are thread safe.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+final class FFmpegProcess {
+
+	private final List<String> command = new ArrayList<>();
+
+	private volatile Process process;
+
+	/**
+	 * Kills the process when the JVM exits. Guarded by this
+	 */
+	private ProcessKiller killer;
+
+	/**
+	 * @param executablePath - path of the ffmpeg executable
+	 */
+	FFmpegProcess(String executablePath) {
+		command.add(executablePath);
+		command.add("-hide_banner");
+	}
+
+	/**
+	 * @param argument - argument added to the command line
+	 */
+	synchronized void addArgument(String argument) {
+		command.add(argument);
+	}
+
+	/**
+	 * Starts the process, which is killed if it is still running when the JVM
+	 * exits
+	 *
+	 * @throws IOException - throws exception if ffmpeg cannot be started
+	 */
+	synchronized void start() throws IOException {
+		if (process != null)
+			throw new IllegalStateException("ffmpeg is already started");
+		process = new ProcessBuilder(command).start();
+		killer = new ProcessKiller(process);
+		Runtime.getRuntime().addShutdownHook(killer);
+	}
+
+	/**
+	 * @return the standard output of ffmpeg
+	 */
+	InputStream getInputStream() {
+		return process.getInputStream();
+	}
+
+	/**
+	 * @return the standard input of ffmpeg
+	 */
+	OutputStream getOutputStream() {
+		return process.getOutputStream();
+	}
+
+	/**
+	 * @return the standard error of ffmpeg, which carries its log
+	 */
+	InputStream getErrorStream() {
+		return process.getErrorStream();
+	}
+
+	/**
+	 * Waits for the end of the process
+	 *
+	 * @return - returns the exit code
+	 * @throws InterruptedException - throws exception if interrupted while
+	 *                              waiting
+	 */
+	int waitFor() throws InterruptedException {
+		return process.waitFor();
+	}
+
+	/**
+	 * Closes the streams and kills the process if it is still running. Does
+	 * nothing if the process was not started
+	 */
+	synchronized void destroy() {
+		if (process == null)
+			return;
+		close(process.getOutputStream());
+		close(process.getInputStream());
+		close(process.getErrorStream());
+		process.destroy();
+		if (killer != null) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(killer);
+			} catch (IllegalStateException e) {
+				// the JVM is exiting, the killer runs anyway
+			}
+			killer = null;
+		}
+	}
+
+	private static void close(AutoCloseable stream) {
+		try {
+			stream.close();
+		} catch (Exception e) {
+			// the pipe is already broken
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.techgnious.utils.IVFileUtils;
+import ws.schild.jave.process.ProcessLocator;
+
+/**
+ * Runs ffmpeg commands, optionally streaming the input through the standard
+ * input of ffmpeg and the output through its standard output.
+ *
+ * The standard streams are served by separate threads so that ffmpeg never
+ * blocks on a full pipe. Instances are thread safe, every run starts its own
+ * process.
+ *
+ * Runs belonging to a job can be passed an {@link FFmpegMonitor}, which reads
+ * their progress from the log and kills them when the job is cancelled.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class FFmpegRunner {
+
+	/**
+	 * Number of trailing ffmpeg log lines kept for the error message of a failed
+	 * run
+	 */
+	private static final int ERROR_LINES = 20;
+
+	private static final ExecutorService IO_THREADS = Executors.newCachedThreadPool(new IOThreadFactory());
+
+	private final ProcessLocator locator;
+
+	/**
+	 * @param locator - locates the ffmpeg executable
+	 */
+	public FFmpegRunner(ProcessLocator locator) {
+		this.locator = locator;
+	}
+
+	/**
+	 * Runs the command, which reads and writes files only
+	 *
+	 * @param command - arguments of the run
+	 * @throws IOException - throws exception if ffmpeg fails
+	 */
+	public void run(FFmpegCommand command) throws IOException {
+		run(command, null, null);
+	}
+
+	/**
+	 * Runs the command, which reads and writes files only, as part of the job of
+	 * the monitor
+	 *
+	 * @param command - arguments of the run
+	 * @param monitor - tracks the progress of the run and cancels it. Can be null
+	 * @throws IOException - throws exception if ffmpeg fails or the job is
+	 *                     cancelled
+	 */
+	public void run(FFmpegCommand command, FFmpegMonitor monitor) throws IOException {
+		run(command, null, null, monitor);
+	}
+
+	/**
+	 * Runs the command, streaming the given input to the standard input of
+	 * ffmpeg and its standard output to the given output. Neither stream is
+	 * closed.
+	 *
+	 * @param command - arguments of the run
+	 * @param in      - content read by ffmpeg from {@link FFmpegCommand#STDIN}.
+	 *                Can be null if the command does not read the standard input
+	 * @param out     - receives the content written by ffmpeg to
+	 *                {@link FFmpegCommand#STDOUT}. Can be null if the command
+	 *                does not write to the standard output
+	 * @throws IOException - throws exception if ffmpeg fails or the input cannot
+	 *                     be read. A non-zero exit code is reported as
+	 *                     {@link FFmpegException}
+	 */
+	public void run(FFmpegCommand command, InputStream in, OutputStream out) throws IOException {
+		run(command, in, out, null);
+	}
+
+	/**
+	 * Runs the command as {@link #run(FFmpegCommand, InputStream, OutputStream)}
+	 * does, as part of the job of the monitor
+	 *
+	 * @param command - arguments of the run
+	 * @param in      - content read by ffmpeg from {@link FFmpegCommand#STDIN}.
+	 *                Can be null if the command does not read the standard input
+	 * @param out     - receives the content written by ffmpeg to
+	 *                {@link FFmpegCommand#STDOUT}. Can be null if the command
+	 *                does not write to the standard output
+	 * @param monitor - tracks the progress of the run and cancels it. Can be null
+	 * @throws IOException - throws exception if ffmpeg fails, the input cannot be
+	 *                     read or the job is cancelled
+	 */
+	public void run(FFmpegCommand command, InputStream in, OutputStream out, FFmpegMonitor monitor)
+			throws IOException {
+		FFmpegProcess ffmpeg = new FFmpegProcess(locator.getExecutablePath());
+		if (in == null)
+			ffmpeg.addArgument("-nostdin");
+		for (String argument : command.getArguments())
+			ffmpeg.addArgument(argument);
+		FFmpegMonitor.Run run = null;
+		if (monitor != null)
+			run = monitor.start(ffmpeg);
+		else
+			ffmpeg.start();
+		FFmpegMonitor.Run log = run;
+		try {
+			Future<Void> writer = null;
+			if (in != null)
+				writer = IO_THREADS.submit(() -> writeInput(in, ffmpeg.getOutputStream()));
+			else
+				ffmpeg.getOutputStream().close();
+			Deque<String> lines;
+			if (out != null) {
+				Future<Deque<String>> logReader = IO_THREADS.submit(() -> readLog(ffmpeg.getErrorStream(), log));
+				IVFileUtils.copyStream(ffmpeg.getInputStream(), out);
+				lines = logReader.get();
+			} else {
+				lines = readLog(ffmpeg.getErrorStream(), log);
+			}
+			int exitCode = run != null ? run.getExitCode() : ffmpeg.waitFor();
+			if (exitCode != 0)
+				throw new FFmpegException(exitCode, String.join("\n", lines));
+			if (writer != null)
+				writer.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while running ffmpeg");
+		} catch (ExecutionException e) {
+			if (monitor != null)
+				monitor.checkCancelled();
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		} catch (IOException e) {
+			// the streams of a cancelled run break at random places
+			if (monitor != null)
+				monitor.checkCancelled();
+			throw e;
+		} finally {
+			if (run != null)
+				run.close();
+			else
+				ffmpeg.destroy();
+		}
+	}
+
+	/**
+	 * Copies the input into the standard input of ffmpeg and closes it. ffmpeg
+	 * may stop reading before the end of the input, so failures to write are
+	 * left to the exit code of ffmpeg, while failures to read the input are
+	 * reported
+	 *
+	 * @param in
+	 * @param stdin
+	 * @return - returns nothing
+	 * @throws IOException - throws exception if the input cannot be read
+	 */
+	private static Void writeInput(InputStream in, OutputStream stdin) throws IOException {
+		byte[] buffer = new byte[IVFileUtils.BUFFER_SIZE * 16];
+		try {
+			int bytesRead;
+			while ((bytesRead = in.read(buffer)) != -1) {
+				try {
+					stdin.write(buffer, 0, bytesRead);
+				} catch (IOException e) {
+					return null;
+				}
+			}
+		} finally {
+			try {
+				stdin.close();
+			} catch (IOException e) {
+				// ffmpeg already closed the pipe
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Drains the log of ffmpeg until the process ends
+	 *
+	 * @param stderr
+	 * @param run    - receives every line of the log. Can be null
+	 * @return - returns the last lines of the log
+	 * @throws IOException
+	 */
+	private static Deque<String> readLog(InputStream stderr, FFmpegMonitor.Run run) throws IOException {
+		Deque<String> lines = new ArrayDeque<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stderr, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (run != null)
+				run.onLog(line);
+			if (lines.size() == ERROR_LINES)
+				lines.removeFirst();
+			lines.addLast(line);
+		}
+		return lines;
+	}
+
+	/**
+	 * Creates the daemon threads serving the standard streams of ffmpeg
+	 */
+	private static final class IOThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "ivcompressor-ffmpeg-io-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
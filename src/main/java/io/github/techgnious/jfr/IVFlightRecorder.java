@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.jfr;
+
+import io.github.techgnious.dto.ProcessingStage;
+
+/**
+ * Records the stages of the image and video calls as Java Flight Recorder
+ * events, so that recordings attribute their time to the processed content.
+ *
+ * One event type is registered per {@link ProcessingStage}, named
+ * io.github.techgnious.ImageDecode, ImageResize, ImageFlatten, ImageEncode,
+ * VideoEncode, TempFileWrite, TempFileRead and FileSave, in the IVCompressor
+ * category. They are enabled with the default JFR settings and can be turned
+ * off per type, e.g.
+ * 
+ * <pre>
+ * jcmd &lt;pid&gt; JFR.start settings=profile io.github.techgnious.ImageDecode#enabled=false
+ * </pre>
+ *
+ * Disabled events cost a check per stage. On JVMs without JFR, such as Java 8
+ * before update 262, no events are recorded and the event classes are never
+ * loaded.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVFlightRecorder {
+
+	private static final boolean AVAILABLE = isJfrPresent();
+
+	private IVFlightRecorder() {
+	}
+
+	/**
+	 * @return whether the JVM supports JFR events
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Starts the event of a stage
+	 *
+	 * @param stage - the recorded stage
+	 * @return - returns the recording, to be finished at the end of the stage, or
+	 *         null if JFR is not available or the event is disabled
+	 */
+	public static IVStageRecording beginStage(ProcessingStage stage) {
+		// the event classes extend jdk.jfr.Event and must not be touched without JFR
+		return AVAILABLE ? StageEvents.begin(stage) : null;
+	}
+
+	private static boolean isJfrPresent() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
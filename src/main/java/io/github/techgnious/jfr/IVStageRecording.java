@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.jfr;
+
+import io.github.techgnious.dto.IVStageMetrics;
+
+/**
+ * Event of a stage started by {@link IVFlightRecorder#beginStage}
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public interface IVStageRecording {
+
+	/**
+	 * Ends the event and commits it with the measurements of the stage
+	 *
+	 * @param metrics - measurements of the stage
+	 */
+	void finish(IVStageMetrics metrics);
+
+}
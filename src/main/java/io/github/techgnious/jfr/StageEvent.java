@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.jfr;
+
+import io.github.techgnious.dto.IVStageMetrics;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the JFR events of the stages, see {@link StageEvents}
+ *
+ * @author srikanth.anreddy
+ *
+ */
+abstract class StageEvent extends Event implements IVStageRecording {
+
+	@Label("Failed")
+	@Description("Whether the stage ended with an exception")
+	boolean failed;
+
+	@Override
+	public void finish(IVStageMetrics metrics) {
+		end();
+		if (shouldCommit()) {
+			failed = metrics.isFailed();
+			set(metrics);
+			commit();
+		}
+	}
+
+	/**
+	 * Copies the measurements of the stage into the fields of the event
+	 *
+	 * @param metrics
+	 */
+	abstract void set(IVStageMetrics metrics);
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.jfr;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.github.techgnious.dto.IVStageMetrics;
+import io.github.techgnious.dto.ProcessingStage;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR events of the stages, one type per {@link ProcessingStage}. Only loaded
+ * on JVMs with JFR.
+ *
+ * The events are created here rather than in their base class, as JFR cannot
+ * instrument event classes loaded while their base class is being
+ * instrumented.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+final class StageEvents {
+
+	/**
+	 * Event types of the stages, checked before an event is allocated
+	 */
+	private static final Map<ProcessingStage, EventType> TYPES = new EnumMap<>(ProcessingStage.class);
+
+	static {
+		for (ProcessingStage stage : ProcessingStage.values())
+			TYPES.put(stage, EventType.getEventType(create(stage).getClass()));
+	}
+
+	private StageEvents() {
+	}
+
+	/**
+	 * @param stage - the recorded stage
+	 * @return - returns the started event, or null if it is disabled
+	 */
+	static IVStageRecording begin(ProcessingStage stage) {
+		if (!TYPES.get(stage).isEnabled())
+			return null;
+		StageEvent event = create(stage);
+		event.begin();
+		return event;
+	}
+
+	private static StageEvent create(ProcessingStage stage) {
+		switch (stage) {
+		case IMAGE_DECODE:
+			return new ImageDecode();
+		case IMAGE_SCALE:
+			return new ImageResize();
+		case IMAGE_FLATTEN:
+			return new ImageFlatten();
+		case IMAGE_ENCODE:
+			return new ImageEncode();
+		case VIDEO_WRITE:
+			return new TempFileWrite();
+		case VIDEO_ENCODE:
+			return new VideoEncode();
+		case VIDEO_READ:
+			return new TempFileRead();
+		case FILE_SAVE:
+			return new FileSave();
+		default:
+			throw new IllegalArgumentException("Unknown stage " + stage);
+		}
+	}
+
+	@Name("io.github.techgnious.ImageDecode")
+	@Label("Image Decode")
+	@Category({ "IVCompressor", "Image" })
+	@Description("Decoding of a source image, subsampled for the target resolution")
+	static final class ImageDecode extends StageEvent {
+
+		@Label("Bytes Read")
+		@DataAmount
+		long bytesRead;
+
+		@Label("Source Width")
+		int sourceWidth;
+
+		@Label("Source Height")
+		int sourceHeight;
+
+		@Label("Decoded Width")
+		int width;
+
+		@Label("Decoded Height")
+		int height;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			bytesRead = metrics.getBytesIn();
+			sourceWidth = metrics.getSourceWidth();
+			sourceHeight = metrics.getSourceHeight();
+			width = metrics.getWidth();
+			height = metrics.getHeight();
+		}
+	}
+
+	@Name("io.github.techgnious.ImageResize")
+	@Label("Image Resize")
+	@Category({ "IVCompressor", "Image" })
+	@Description("Scaling of a decoded image to the target resolution")
+	static final class ImageResize extends StageEvent {
+
+		@Label("Decoded Width")
+		@Description("Width of the decoded, possibly subsampled, image")
+		int sourceWidth;
+
+		@Label("Decoded Height")
+		@Description("Height of the decoded, possibly subsampled, image")
+		int sourceHeight;
+
+		@Label("Target Width")
+		int targetWidth;
+
+		@Label("Target Height")
+		int targetHeight;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			sourceWidth = metrics.getSourceWidth();
+			sourceHeight = metrics.getSourceHeight();
+			targetWidth = metrics.getWidth();
+			targetHeight = metrics.getHeight();
+		}
+	}
+
+	@Name("io.github.techgnious.ImageFlatten")
+	@Label("Image Flatten")
+	@Category({ "IVCompressor", "Image" })
+	@Description("Re-rendering of a scaled image without alpha channel, for formats that cannot store it")
+	static final class ImageFlatten extends StageEvent {
+
+		@Label("Format")
+		String format;
+
+		@Label("Width")
+		int width;
+
+		@Label("Height")
+		int height;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			format = metrics.getFormat();
+			width = metrics.getWidth();
+			height = metrics.getHeight();
+		}
+	}
+
+	@Name("io.github.techgnious.ImageEncode")
+	@Label("Image Encode")
+	@Category({ "IVCompressor", "Image" })
+	@Description("Encoding of a scaled image in the target format")
+	static final class ImageEncode extends StageEvent {
+
+		@Label("Format")
+		String format;
+
+		@Label("Width")
+		int width;
+
+		@Label("Height")
+		int height;
+
+		@Label("Bytes Written")
+		@DataAmount
+		long bytesWritten;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			format = metrics.getFormat();
+			width = metrics.getWidth();
+			height = metrics.getHeight();
+			bytesWritten = metrics.getBytesOut();
+		}
+	}
+
+	@Name("io.github.techgnious.VideoEncode")
+	@Label("Video Encode")
+	@Category({ "IVCompressor", "Video" })
+	@Description("Probing and encoding of a video with ffmpeg")
+	static final class VideoEncode extends StageEvent {
+
+		@Label("Format")
+		String format;
+
+		@Label("Source Size")
+		@DataAmount
+		long sourceBytes;
+
+		@Label("Target Size")
+		@DataAmount
+		long targetBytes;
+
+		@Label("Exit Code")
+		@Description("Exit code of ffmpeg, or -1 if it did not exit")
+		int exitCode;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			format = metrics.getFormat();
+			sourceBytes = metrics.getBytesIn();
+			targetBytes = metrics.getBytesOut();
+			exitCode = metrics.getExitCode() != null ? metrics.getExitCode() : -1;
+		}
+	}
+
+	@Name("io.github.techgnious.TempFileWrite")
+	@Label("Temp File Write")
+	@Category({ "IVCompressor", "Video" })
+	@Description("Writing of video content to a temp file for ffmpeg")
+	static final class TempFileWrite extends StageEvent {
+
+		@Label("Format")
+		String format;
+
+		@Label("Bytes Written")
+		@DataAmount
+		long bytesWritten;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			format = metrics.getFormat();
+			bytesWritten = metrics.getBytesOut();
+		}
+	}
+
+	@Name("io.github.techgnious.TempFileRead")
+	@Label("Temp File Read")
+	@Category({ "IVCompressor", "Video" })
+	@Description("Reading of an encoded video back from its temp file")
+	static final class TempFileRead extends StageEvent {
+
+		@Label("Format")
+		String format;
+
+		@Label("Bytes Read")
+		@DataAmount
+		long bytesRead;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			format = metrics.getFormat();
+			bytesRead = metrics.getBytesIn();
+		}
+	}
+
+	@Name("io.github.techgnious.FileSave")
+	@Label("File Save")
+	@Category({ "IVCompressor", "File" })
+	@Description("Saving of the result of a call to the requested path")
+	static final class FileSave extends StageEvent {
+
+		@Label("Format")
+		String format;
+
+		@Label("Bytes Written")
+		@DataAmount
+		long bytesWritten;
+
+		@Override
+		void set(IVStageMetrics metrics) {
+			format = metrics.getFormat();
+			bytesWritten = metrics.getBytesOut();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.listener;
+
+import io.github.techgnious.dto.IVStageMetrics;
+
+/**
+ * Receives the measurements of every stage of the image and video calls of a
+ * compressor, see
+ * {@link io.github.techgnious.IVCompressor.Builder#metricsListener(IVMetricsListener)}.
+ *
+ * The listener is called on the thread that ran the stage, once the stage
+ * ends, so it must return quickly. Exceptions thrown by the listener are
+ * ignored and do not fail the call.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public interface IVMetricsListener {
+
+	/**
+	 * Called whenever a stage of a call ends, successfully or not
+	 *
+	 * @param metrics - measurements of the stage
+	 */
+	void onStage(IVStageMetrics metrics);
+
+}
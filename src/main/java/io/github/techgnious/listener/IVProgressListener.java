@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.listener;
+
+import io.github.techgnious.dto.IVProgress;
+
+/**
+ * Receives the progress of a video job, see
+ * {@link io.github.techgnious.IVCompressor#submitVideoJob(java.nio.file.Path, java.nio.file.Path, io.github.techgnious.dto.VideoProfile, IVProgressListener, java.time.Duration)}.
+ *
+ * ffmpeg reports its progress about twice per second. The listener is called on
+ * the thread reading the log of ffmpeg, so it must return quickly. Exceptions
+ * thrown by the listener fail the job.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public interface IVProgressListener {
+
+	/**
+	 * Called whenever ffmpeg reports its progress
+	 *
+	 * @param progress - progress of the job so far
+	 */
+	void onProgress(IVProgress progress);
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Resampler copying the source pixel closest to the centre of each target
+ * pixel. The source coordinates are computed once per call.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+final class NearestNeighbourResampler implements Resampler {
+
+	@Override
+	public BufferedImage resample(BufferedImage source, int width, int height) {
+		PixelRaster in = PixelRaster.of(source);
+		PixelRaster out = in.createCompatible(width, height);
+		int[] sourceX = nearestIndices(in.getWidth(), width);
+		int[] sourceY = nearestIndices(in.getHeight(), height);
+		RowBands.run(height, width, (fromRow, toRow) -> {
+			for (int y = fromRow; y < toRow; y++) {
+				for (int x = 0; x < width; x++)
+					out.copyPixel(in, sourceX[x], sourceY[y], x, y);
+			}
+		});
+		return out.getImage();
+	}
+
+	/**
+	 * @param sourceSize
+	 * @param targetSize
+	 * @return - returns the closest source index of every target index
+	 */
+	private static int[] nearestIndices(int sourceSize, int targetSize) {
+		int[] indices = new int[targetSize];
+		double scale = (double) sourceSize / targetSize;
+		for (int i = 0; i < targetSize; i++)
+			indices[i] = Math.min(sourceSize - 1, (int) ((i + 0.5) * scale));
+		return indices;
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+
+/**
+ * Direct access to the pixel array backing a {@link BufferedImage}.
+ *
+ * Supports the packed int layouts (TYPE_INT_RGB, TYPE_INT_ARGB) and the
+ * interleaved byte layouts (TYPE_3BYTE_BGR, TYPE_4BYTE_ABGR, TYPE_BYTE_GRAY).
+ * Samples are exposed per row as floats in storage order, with colour samples
+ * premultiplied by alpha so that filters do not bleed colour out of
+ * transparent pixels.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+final class PixelRaster {
+
+	private static final int[] RGB_SHIFTS = { 16, 8, 0 };
+	private static final int[] ARGB_SHIFTS = { 24, 16, 8, 0 };
+
+	private final BufferedImage image;
+	private final int width;
+	private final int height;
+	private final int channels;
+	private final int alphaChannel;
+	private final int[] intData;
+	private final byte[] byteData;
+	private final int[] shifts;
+
+	private PixelRaster(BufferedImage image) {
+		this.image = image;
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+		switch (image.getType()) {
+		case BufferedImage.TYPE_INT_RGB:
+			channels = 3;
+			alphaChannel = -1;
+			shifts = RGB_SHIFTS;
+			break;
+		case BufferedImage.TYPE_INT_ARGB:
+			channels = 4;
+			alphaChannel = 0;
+			shifts = ARGB_SHIFTS;
+			break;
+		case BufferedImage.TYPE_3BYTE_BGR:
+			channels = 3;
+			alphaChannel = -1;
+			shifts = null;
+			break;
+		case BufferedImage.TYPE_4BYTE_ABGR:
+			channels = 4;
+			alphaChannel = 0;
+			shifts = null;
+			break;
+		default:
+			channels = 1;
+			alphaChannel = -1;
+			shifts = null;
+		}
+		intData = buffer instanceof DataBufferInt ? ((DataBufferInt) buffer).getData() : null;
+		byteData = buffer instanceof DataBufferByte ? ((DataBufferByte) buffer).getData() : null;
+	}
+
+	/**
+	 * Wraps the image, converting it first if its layout is not supported
+	 *
+	 * @param image
+	 * @return - returns the raster of the image or of a converted copy
+	 */
+	static PixelRaster of(BufferedImage image) {
+		if (isSupported(image))
+			return new PixelRaster(image);
+		int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+		Graphics2D g = converted.createGraphics();
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+		return new PixelRaster(converted);
+	}
+
+	/**
+	 * Creates an empty raster of the same layout
+	 *
+	 * @param width
+	 * @param height
+	 * @return - returns the new raster
+	 */
+	PixelRaster createCompatible(int width, int height) {
+		return new PixelRaster(new BufferedImage(width, height, image.getType()));
+	}
+
+	/**
+	 * Reads one row of samples
+	 *
+	 * @param y   - row to read
+	 * @param row - receives width * channels samples
+	 */
+	void readRow(int y, float[] row) {
+		if (intData != null) {
+			int offset = y * width;
+			for (int x = 0, i = 0; x < width; x++) {
+				int pixel = intData[offset + x];
+				for (int c = 0; c < channels; c++)
+					row[i++] = (pixel >>> shifts[c]) & 0xff;
+			}
+		} else {
+			int offset = y * width * channels;
+			int length = width * channels;
+			for (int i = 0; i < length; i++)
+				row[i] = byteData[offset + i] & 0xff;
+		}
+		if (alphaChannel >= 0) {
+			for (int i = 0; i < width * channels; i += channels) {
+				float alpha = row[i + alphaChannel] / 255f;
+				for (int c = 0; c < channels; c++) {
+					if (c != alphaChannel)
+						row[i + c] *= alpha;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes one row of samples. The given row is modified
+	 *
+	 * @param y   - row to write
+	 * @param row - holds width * channels samples
+	 */
+	void writeRow(int y, float[] row) {
+		if (alphaChannel >= 0) {
+			for (int i = 0; i < width * channels; i += channels) {
+				float alpha = row[i + alphaChannel];
+				float factor = alpha > 0 ? 255f / alpha : 0;
+				for (int c = 0; c < channels; c++) {
+					if (c != alphaChannel)
+						row[i + c] *= factor;
+				}
+			}
+		}
+		if (intData != null) {
+			int offset = y * width;
+			for (int x = 0, i = 0; x < width; x++) {
+				int pixel = alphaChannel < 0 ? 0xff000000 : 0;
+				for (int c = 0; c < channels; c++)
+					pixel |= clamp(row[i++]) << shifts[c];
+				intData[offset + x] = pixel;
+			}
+		} else {
+			int offset = y * width * channels;
+			int length = width * channels;
+			for (int i = 0; i < length; i++)
+				byteData[offset + i] = (byte) clamp(row[i]);
+		}
+	}
+
+	/**
+	 * Copies one pixel of the given raster into this raster. Both rasters must
+	 * share the same layout
+	 *
+	 * @param source
+	 * @param sourceX
+	 * @param sourceY
+	 * @param x
+	 * @param y
+	 */
+	void copyPixel(PixelRaster source, int sourceX, int sourceY, int x, int y) {
+		if (intData != null) {
+			intData[y * width + x] = source.intData[sourceY * source.width + sourceX];
+		} else {
+			System.arraycopy(source.byteData, (sourceY * source.width + sourceX) * channels, byteData,
+					(y * width + x) * channels, channels);
+		}
+	}
+
+	BufferedImage getImage() {
+		return image;
+	}
+
+	int getWidth() {
+		return width;
+	}
+
+	int getHeight() {
+		return height;
+	}
+
+	int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * Checks if the pixel array of the image can be accessed directly
+	 *
+	 * @param image
+	 * @return - returns true if the image layout is supported
+	 */
+	private static boolean isSupported(BufferedImage image) {
+		int samplesPerPixel;
+		switch (image.getType()) {
+		case BufferedImage.TYPE_INT_RGB:
+		case BufferedImage.TYPE_INT_ARGB:
+			samplesPerPixel = 1;
+			break;
+		case BufferedImage.TYPE_3BYTE_BGR:
+			samplesPerPixel = 3;
+			break;
+		case BufferedImage.TYPE_4BYTE_ABGR:
+			samplesPerPixel = 4;
+			break;
+		case BufferedImage.TYPE_BYTE_GRAY:
+			samplesPerPixel = 1;
+			break;
+		default:
+			return false;
+		}
+		// sub images share the pixel array of their parent and cannot be addressed
+		// row by row
+		WritableRaster raster = image.getRaster();
+		DataBuffer buffer = raster.getDataBuffer();
+		return raster.getParent() == null && buffer.getNumBanks() == 1 && buffer.getOffset() == 0
+				&& buffer.getSize() == image.getWidth() * image.getHeight() * samplesPerPixel;
+	}
+
+	private static int clamp(float value) {
+		int rounded = Math.round(value);
+		return rounded < 0 ? 0 : (rounded > 255 ? 255 : rounded);
+	}
+}
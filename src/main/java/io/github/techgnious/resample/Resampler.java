@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Strategy used to scale a decoded image to the target resolution.
+ *
+ * Built-in implementations are available in {@link Resamplers}. Custom
+ * implementations can be passed to the resize methods of
+ * {@link io.github.techgnious.IVCompressor} to trade speed for quality.
+ *
+ * Implementations must be thread safe, the same instance is shared by
+ * concurrent resize calls.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public interface Resampler {
+
+	/**
+	 * Scales the source image to the given resolution
+	 *
+	 * @param source - image to be scaled. Must not be modified
+	 * @param width  - width of the scaled image
+	 * @param height - height of the scaled image
+	 * @return - returns the scaled image
+	 */
+	BufferedImage resample(BufferedImage source, int width, int height);
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Enum Class that defines the built-in resamplers, ordered from fastest to
+ * best quality.
+ *
+ * All of them work directly on the pixel arrays of the image, precompute their
+ * filter weights once per call and split the rows of large images across the
+ * common ForkJoinPool.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public enum Resamplers implements Resampler {
+
+	/**
+	 * Picks the closest source pixel. Fastest, but shows aliasing on downscale
+	 */
+	NEAREST(new NearestNeighbourResampler()),
+	/**
+	 * Triangle filter, widened on downscale so that every source pixel is taken
+	 * into account
+	 */
+	BILINEAR(new SeparableResampler(SeparableResampler.Kernel.TRIANGLE)),
+	/**
+	 * Box filter, averages the area of source pixels covered by each target pixel
+	 */
+	AREA_AVERAGE(new SeparableResampler(SeparableResampler.Kernel.BOX)),
+	/**
+	 * Lanczos windowed sinc filter with three lobes. Sharpest and slowest
+	 */
+	LANCZOS3(new SeparableResampler(SeparableResampler.Kernel.LANCZOS3));
+
+	private final Resampler resampler;
+
+	Resamplers(Resampler resampler) {
+		this.resampler = resampler;
+	}
+
+	@Override
+	public BufferedImage resample(BufferedImage source, int width, int height) {
+		return resampler.resample(source, width, height);
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits row based work into bands that are processed on the common
+ * ForkJoinPool. Small images are processed on the caller thread.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+final class RowBands {
+
+	/**
+	 * Below this number of samples per band, forking costs more than it saves
+	 */
+	private static final long MIN_SAMPLES_PER_BAND = 64 * 1024;
+
+	private RowBands() {
+	}
+
+	/**
+	 * Work done on a contiguous range of rows
+	 */
+	interface Band {
+		void process(int fromRow, int toRow);
+	}
+
+	/**
+	 * Processes the rows [0, rows) in parallel bands
+	 *
+	 * @param rows          - number of rows
+	 * @param samplesPerRow - work done per row, used to size the bands
+	 * @param band          - work to do
+	 */
+	static void run(int rows, long samplesPerRow, Band band) {
+		int parallelism = ForkJoinPool.getCommonPoolParallelism();
+		long minRows = Math.max(1, MIN_SAMPLES_PER_BAND / Math.max(1, samplesPerRow));
+		int bandRows = (int) Math.max(minRows, (rows + parallelism * 4L - 1) / (parallelism * 4L));
+		if (parallelism <= 1 || bandRows >= rows) {
+			band.process(0, rows);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new BandAction(band, 0, rows, bandRows));
+	}
+
+	private static final class BandAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 2217183426528476254L;
+
+		private final transient Band band;
+		private final int fromRow;
+		private final int toRow;
+		private final int bandRows;
+
+		BandAction(Band band, int fromRow, int toRow, int bandRows) {
+			this.band = band;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.bandRows = bandRows;
+		}
+
+		@Override
+		protected void compute() {
+			if (toRow - fromRow <= bandRows) {
+				band.process(fromRow, toRow);
+				return;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			invokeAll(new BandAction(band, fromRow, middle, bandRows), new BandAction(band, middle, toRow, bandRows));
+		}
+	}
+}
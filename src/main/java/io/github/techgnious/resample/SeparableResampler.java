@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Resampler applying a separable convolution kernel, first horizontally and
+ * then vertically.
+ *
+ * When downscaling, the kernel is stretched by the scale factor so that every
+ * source pixel contributes to the result. The weights of each pass are
+ * computed once per call and shared by all rows.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+final class SeparableResampler implements Resampler {
+
+	/**
+	 * Filter kernels supported by this resampler
+	 */
+	enum Kernel {
+		BOX(0.5) {
+			@Override
+			double weight(double x) {
+				return x >= -0.5 && x < 0.5 ? 1 : 0;
+			}
+		},
+		TRIANGLE(1) {
+			@Override
+			double weight(double x) {
+				x = Math.abs(x);
+				return x < 1 ? 1 - x : 0;
+			}
+		},
+		LANCZOS3(3) {
+			@Override
+			double weight(double x) {
+				return x > -3 && x < 3 ? sinc(x) * sinc(x / 3) : 0;
+			}
+		};
+
+		private final double support;
+
+		Kernel(double support) {
+			this.support = support;
+		}
+
+		abstract double weight(double x);
+
+		private static double sinc(double x) {
+			if (x == 0)
+				return 1;
+			x *= Math.PI;
+			return Math.sin(x) / x;
+		}
+	}
+
+	private final Kernel kernel;
+
+	SeparableResampler(Kernel kernel) {
+		this.kernel = kernel;
+	}
+
+	@Override
+	public BufferedImage resample(BufferedImage source, int width, int height) {
+		PixelRaster in = PixelRaster.of(source);
+		PixelRaster out = in.createCompatible(width, height);
+		int channels = in.getChannels();
+		int sourceWidth = in.getWidth();
+		int sourceHeight = in.getHeight();
+		Weights horizontal = new Weights(kernel, sourceWidth, width);
+		Weights vertical = new Weights(kernel, sourceHeight, height);
+		int rowLength = width * channels;
+		float[] buffer = new float[sourceHeight * rowLength];
+
+		RowBands.run(sourceHeight, (long) sourceWidth * channels, (fromRow, toRow) -> {
+			float[] row = new float[sourceWidth * channels];
+			for (int y = fromRow; y < toRow; y++) {
+				in.readRow(y, row);
+				int offset = y * rowLength;
+				for (int x = 0; x < width; x++) {
+					int start = horizontal.start[x];
+					int count = horizontal.count[x];
+					int weightOffset = x * horizontal.stride;
+					for (int c = 0; c < channels; c++) {
+						float sum = 0;
+						for (int k = 0; k < count; k++)
+							sum += row[(start + k) * channels + c] * horizontal.weights[weightOffset + k];
+						buffer[offset + x * channels + c] = sum;
+					}
+				}
+			}
+		});
+
+		RowBands.run(height, (long) rowLength * vertical.stride, (fromRow, toRow) -> {
+			float[] row = new float[rowLength];
+			for (int y = fromRow; y < toRow; y++) {
+				int start = vertical.start[y];
+				int count = vertical.count[y];
+				int weightOffset = y * vertical.stride;
+				Arrays.fill(row, 0);
+				for (int k = 0; k < count; k++) {
+					float weight = vertical.weights[weightOffset + k];
+					int offset = (start + k) * rowLength;
+					for (int i = 0; i < rowLength; i++)
+						row[i] += buffer[offset + i] * weight;
+				}
+				out.writeRow(y, row);
+			}
+		});
+		return out.getImage();
+	}
+
+	/**
+	 * Precomputed, normalised kernel weights for one direction
+	 */
+	private static final class Weights {
+
+		private final int[] start;
+		private final int[] count;
+		private final float[] weights;
+		private final int stride;
+
+		Weights(Kernel kernel, int sourceSize, int targetSize) {
+			double scale = (double) sourceSize / targetSize;
+			double filterScale = Math.max(1, scale);
+			double support = kernel.support * filterScale;
+			stride = (int) Math.ceil(support) * 2 + 1;
+			start = new int[targetSize];
+			count = new int[targetSize];
+			weights = new float[targetSize * stride];
+			for (int i = 0; i < targetSize; i++) {
+				double center = (i + 0.5) * scale;
+				int left = Math.max(0, (int) Math.floor(center - support));
+				int right = Math.min(sourceSize, (int) Math.ceil(center + support));
+				right = Math.min(right, left + stride);
+				double total = 0;
+				for (int j = left; j < right; j++)
+					total += kernel.weight((j + 0.5 - center) / filterScale);
+				if (total == 0) {
+					// kernel too narrow to hit a pixel centre, fall back to the closest pixel
+					left = Math.min(sourceSize - 1, (int) center);
+					right = left + 1;
+					weights[i * stride] = 1;
+				} else {
+					for (int j = left; j < right; j++)
+						weights[i * stride + j - left] = (float) (kernel.weight((j + 0.5 - center) / filterScale)
+								/ total);
+				}
+				start[i] = left;
+				count[i] = right - left;
+			}
+		}
+	}
+}
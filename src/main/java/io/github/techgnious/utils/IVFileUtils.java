@@ -98,6 +98,30 @@ public class IVFileUtils {
 		}
 	}
 
+	/**
+	 * Copy the contents of the given InputStream to the given OutputStream. Leaves
+	 * both streams open.
+	 *
+	 * @param in  the stream to copy from
+	 * @param out the stream to copy to
+	 * @return the number of bytes copied
+	 * @throws IOException in case of I/O errors
+	 */
+	public static long copyStream(InputStream in, OutputStream out) throws IOException {
+		checkNull(in, "No InputStream specified");
+		checkNull(out, "No OutputStream specified");
+
+		long byteCount = 0;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int bytesRead;
+		while ((bytesRead = in.read(buffer)) != -1) {
+			out.write(buffer, 0, bytesRead);
+			byteCount += bytesRead;
+		}
+		out.flush();
+		return byteCount;
+	}
+
 	/**
 	 * Attempt to close the supplied {@link Closeable}, silently swallowing any
 	 * exceptions.
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+import io.github.techgnious.dto.IVSize;
+
+/**
+ * Util Class to handle the Image decoding operations within the project
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public class IVImageUtils {
+
+	private IVImageUtils() {
+	}
+
+	/**
+	 * Decodes the first image of the given stream, skipping source pixels that
+	 * are not needed for an image of the given target resolution.
+	 *
+	 * The image is read with the largest integer subsampling factor that still
+	 * keeps the decoded image at or above the target width and height, so large
+	 * sources never get fully materialised in the heap before being shrunk.
+	 *
+	 * @param stream       the image stream to decode. Not closed by this method
+	 * @param targetWidth  width the image is going to be resized to
+	 * @param targetHeight height the image is going to be resized to
+	 * @return the decoded, possibly subsampled, image
+	 * @throws IOException in case the stream does not contain a readable image
+	 */
+	public static BufferedImage readImage(ImageInputStream stream, int targetWidth, int targetHeight)
+			throws IOException {
+		return readImage(stream, targetWidth, targetHeight, null);
+	}
+
+	/**
+	 * Decodes the first image of the given stream like
+	 * {@link #readImage(ImageInputStream, int, int)}, reporting the dimensions
+	 * of the source image before it is subsampled
+	 *
+	 * @param stream       the image stream to decode. Not closed by this method
+	 * @param targetWidth  width the image is going to be resized to
+	 * @param targetHeight height the image is going to be resized to
+	 * @param sourceSize   receives the dimensions of the source image. Can be
+	 *                     null
+	 * @return the decoded, possibly subsampled, image
+	 * @throws IOException in case the stream does not contain a readable image
+	 */
+	public static BufferedImage readImage(ImageInputStream stream, int targetWidth, int targetHeight,
+			Consumer<IVSize> sourceSize) throws IOException {
+		ImageReader reader = getImageReader(stream);
+		try {
+			reader.setInput(stream, true, true);
+			ImageReadParam param = reader.getDefaultReadParam();
+			int sourceWidth = reader.getWidth(0);
+			int sourceHeight = reader.getHeight(0);
+			if (sourceSize != null)
+				sourceSize.accept(new IVSize(sourceWidth, sourceHeight));
+			int factor = getSubsamplingFactor(sourceWidth, sourceHeight, targetWidth, targetHeight);
+			if (factor > 1)
+				param.setSourceSubsampling(factor, factor, 0, 0);
+			return reader.read(0, param);
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	/**
+	 * Reads the dimensions of the first image of the given stream. Only the
+	 * image header (e.g. JPEG SOF or PNG IHDR) is parsed, the pixel data is not
+	 * decoded.
+	 *
+	 * The stream is reset to its position afterwards, so the same stream can be
+	 * used to decode the image.
+	 *
+	 * @param stream the image stream to probe. Not closed by this method
+	 * @return dimensions of the image
+	 * @throws IOException in case the stream does not contain a readable image
+	 */
+	public static IVSize getImageSize(ImageInputStream stream) throws IOException {
+		ImageReader reader = getImageReader(stream);
+		long start = stream.getStreamPosition();
+		try (ImageInputStream probe = new UnflushedStream(stream)) {
+			reader.setInput(probe, true, true);
+			return new IVSize(reader.getWidth(0), reader.getHeight(0));
+		} finally {
+			reader.dispose();
+			stream.seek(start);
+		}
+	}
+
+	/**
+	 * Checks if the given stream is encoded with the given image format
+	 *
+	 * @param stream     the image stream to probe. Not closed by this method
+	 * @param formatName informal format name, e.g. jpg or png
+	 * @return true if the reader of the stream handles the given format
+	 * @throws IOException in case the stream does not contain a readable image
+	 */
+	public static boolean isFormat(ImageInputStream stream, String formatName) throws IOException {
+		ImageReader reader = getImageReader(stream);
+		try {
+			for (String name : reader.getOriginatingProvider().getFormatNames()) {
+				if (name.equalsIgnoreCase(formatName))
+					return true;
+			}
+			return false;
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	/**
+	 * Computes the largest integer subsampling factor for which the subsampled
+	 * source still covers the target resolution in both dimensions.
+	 *
+	 * @param sourceWidth  width of the source image
+	 * @param sourceHeight height of the source image
+	 * @param targetWidth  width of the target image
+	 * @param targetHeight height of the target image
+	 * @return subsampling factor, 1 if the source must be read completely
+	 */
+	public static int getSubsamplingFactor(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+		if (targetWidth <= 0 || targetHeight <= 0)
+			return 1;
+		return Math.max(1, Math.min(sourceWidth / targetWidth, sourceHeight / targetHeight));
+	}
+
+	/**
+	 * Looks up the reader registered for the format of the given stream
+	 *
+	 * @param stream
+	 * @return reader capable of decoding the stream
+	 * @throws IOException - throws exception if no reader is available
+	 */
+	private static ImageReader getImageReader(ImageInputStream stream) throws IOException {
+		if (stream == null)
+			throw new IOException("No image stream available");
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+		if (!readers.hasNext())
+			throw new IOException("No image reader found for the given data");
+		return readers.next();
+	}
+
+	/**
+	 * View of a stream from its current position, which readers cannot make
+	 * discard the content they have read, so that the stream can seek back to
+	 * the start afterwards. Closing the view leaves the stream open.
+	 */
+	private static final class UnflushedStream extends ImageInputStreamImpl {
+
+		private final ImageInputStream stream;
+
+		private final long start;
+
+		UnflushedStream(ImageInputStream stream) throws IOException {
+			this.stream = stream;
+			this.start = stream.getStreamPosition();
+		}
+
+		@Override
+		public int read() throws IOException {
+			bitOffset = 0;
+			int b = stream.read();
+			if (b != -1)
+				streamPos++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			bitOffset = 0;
+			int read = stream.read(b, off, len);
+			if (read > 0)
+				streamPos += read;
+			return read;
+		}
+
+		@Override
+		public void seek(long pos) throws IOException {
+			super.seek(pos);
+			stream.seek(start + pos);
+		}
+
+		@Override
+		public long length() {
+			try {
+				long length = stream.length();
+				return length < 0 ? -1 : length - start;
+			} catch (IOException e) {
+				return -1;
+			}
+		}
+	}
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import io.github.techgnious.dto.ImageProfile;
+import io.github.techgnious.dto.VideoProfile;
+import io.github.techgnious.resample.Resamplers;
+
+/**
+ * Cache of encoded images and videos, so that identical content uploaded again
+ * is not encoded again.
+ *
+ * Results are keyed by the SHA-256 hash of the source content along with the
+ * description of the profile, see {@link #createKey(byte[], ImageProfile)}.
+ * They are held in memory up to the given number of bytes, evicting the least
+ * recently used results first. Optionally, results evicted from memory are
+ * kept in a directory up to a second limit, which survives restarts.
+ *
+ * The directory must not be shared with other processes. Failures to read or
+ * write it are treated as cache misses. Instances are thread safe.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVResultCache {
+
+	private static final String ENTRY_SUFFIX = ".bin";
+
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private static final Pattern ENTRY_PATTERN = Pattern.compile("^[0-9a-f]{64}\\" + ENTRY_SUFFIX + "$");
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final long memoryCapacity;
+
+	/**
+	 * Results held in memory, least recently used first. Guarded by this
+	 */
+	private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Guarded by this
+	 */
+	private long memoryBytes;
+
+	private final Path directory;
+
+	private final long diskCapacity;
+
+	/**
+	 * Sizes of the results held on disk, least recently used first. Guarded by
+	 * this
+	 */
+	private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Guarded by this
+	 */
+	private long diskBytes;
+
+	/**
+	 * Creates a cache holding results in memory only
+	 *
+	 * @param memoryBytes - maximum number of bytes held in memory
+	 */
+	public IVResultCache(long memoryBytes) {
+		if (memoryBytes <= 0)
+			throw new IllegalArgumentException("Invalid memory capacity " + memoryBytes);
+		this.memoryCapacity = memoryBytes;
+		this.directory = null;
+		this.diskCapacity = 0;
+	}
+
+	/**
+	 * Creates a cache holding results in memory, and the results evicted from
+	 * memory in the directory. Results left in the directory by earlier instances
+	 * are reused
+	 *
+	 * @param memoryBytes - maximum number of bytes held in memory
+	 * @param directory   - location of the results on disk, created if missing
+	 * @param diskBytes   - maximum number of bytes held on disk
+	 * @throws IOException - throws exception if the directory cannot be created
+	 *                     or listed
+	 */
+	public IVResultCache(long memoryBytes, Path directory, long diskBytes) throws IOException {
+		if (memoryBytes <= 0)
+			throw new IllegalArgumentException("Invalid memory capacity " + memoryBytes);
+		if (diskBytes <= 0)
+			throw new IllegalArgumentException("Invalid disk capacity " + diskBytes);
+		this.memoryCapacity = memoryBytes;
+		this.directory = Files.createDirectories(directory);
+		this.diskCapacity = diskBytes;
+		loadEntries();
+	}
+
+	/**
+	 * Creates the key of an image resized with the profile
+	 *
+	 * @param data    - content of the source image
+	 * @param profile - settings of the resize
+	 * @return - returns the key, or null if the result cannot be cached because
+	 *         the profile uses a custom resampler
+	 */
+	public static String createKey(byte[] data, ImageProfile profile) {
+		if (profile.getResampler() != null && !(profile.getResampler() instanceof Resamplers))
+			return null;
+		return createKey(data, profile.toString());
+	}
+
+	/**
+	 * Creates the key of a video encoded with the profile
+	 *
+	 * @param data    - content of the source video
+	 * @param profile - settings of the encode
+	 * @return - returns the key
+	 */
+	public static String createKey(byte[] data, VideoProfile profile) {
+		return createKey(data, profile.toString());
+	}
+
+	/**
+	 * Returns the cached result, moving results read from disk back into memory
+	 *
+	 * @param key - key of the result
+	 * @return - returns a copy of the result, or null if it is not cached
+	 */
+	public byte[] get(String key) {
+		synchronized (this) {
+			byte[] value = memory.get(key);
+			if (value != null)
+				return value.clone();
+			if (disk.get(key) == null)
+				return null;
+		}
+		Path file = directory.resolve(key + ENTRY_SUFFIX);
+		byte[] value;
+		try {
+			value = Files.readAllBytes(file);
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (NoSuchFileException e) {
+			// evicted meanwhile
+			return null;
+		} catch (IOException e) {
+			synchronized (this) {
+				removeFromDisk(key);
+			}
+			return null;
+		}
+		moveToMemory(key, value.clone());
+		return value;
+	}
+
+	/**
+	 * Caches the result. Results larger than the memory capacity are not cached
+	 *
+	 * @param key   - key of the result
+	 * @param value - result to cache, which is copied
+	 */
+	public void put(String key, byte[] value) {
+		moveToMemory(key, value.clone());
+	}
+
+	/**
+	 * @return the number of bytes held in memory
+	 */
+	public synchronized long getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	/**
+	 * @return the number of bytes held on disk
+	 */
+	public synchronized long getDiskBytes() {
+		return diskBytes;
+	}
+
+	/**
+	 * Adds the result to memory, moving the results it evicts to disk
+	 *
+	 * @param key
+	 * @param value
+	 */
+	private void moveToMemory(String key, byte[] value) {
+		List<Map.Entry<String, byte[]>> evicted;
+		synchronized (this) {
+			evicted = addToMemory(key, value);
+		}
+		// written outside the lock, so that memory hits never wait for the disk
+		for (Map.Entry<String, byte[]> entry : evicted)
+			writeToDisk(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * Adds the result to memory, evicting the least recently used results
+	 *
+	 * @param key
+	 * @param value
+	 * @return - returns the evicted results that the disk can hold
+	 */
+	private List<Map.Entry<String, byte[]>> addToMemory(String key, byte[] value) {
+		List<Map.Entry<String, byte[]>> evicted = new ArrayList<>();
+		if (value.length > memoryCapacity)
+			return evicted;
+		byte[] previous = memory.put(key, value);
+		if (previous != null)
+			memoryBytes -= previous.length;
+		memoryBytes += value.length;
+		Iterator<Map.Entry<String, byte[]>> entries = memory.entrySet().iterator();
+		while (memoryBytes > memoryCapacity) {
+			Map.Entry<String, byte[]> eldest = entries.next();
+			memoryBytes -= eldest.getValue().length;
+			entries.remove();
+			if (directory != null && !disk.containsKey(eldest.getKey())
+					&& eldest.getValue().length <= diskCapacity)
+				evicted.add(eldest);
+		}
+		return evicted;
+	}
+
+	/**
+	 * Writes the result evicted from memory to disk, evicting the least recently
+	 * used results on disk
+	 *
+	 * @param key
+	 * @param value
+	 */
+	private void writeToDisk(String key, byte[] value) {
+		Path file = directory.resolve(key + ENTRY_SUFFIX);
+		try {
+			// written aside and moved, so that readers never see a partial result
+			Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+			try {
+				Files.write(temp, value);
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			// the result is only lost from the cache
+			return;
+		}
+		synchronized (this) {
+			Long previous = disk.put(key, (long) value.length);
+			if (previous != null)
+				diskBytes -= previous;
+			diskBytes += value.length;
+			evictFromDisk();
+		}
+	}
+
+	/**
+	 * Deletes the least recently used results until the disk capacity is met
+	 */
+	private void evictFromDisk() {
+		Iterator<Map.Entry<String, Long>> entries = disk.entrySet().iterator();
+		while (diskBytes > diskCapacity) {
+			Map.Entry<String, Long> eldest = entries.next();
+			diskBytes -= eldest.getValue();
+			entries.remove();
+			deleteEntry(eldest.getKey());
+		}
+	}
+
+	/**
+	 * Drops the unreadable result from disk
+	 *
+	 * @param key
+	 */
+	private void removeFromDisk(String key) {
+		Long size = disk.remove(key);
+		if (size != null) {
+			diskBytes -= size;
+			deleteEntry(key);
+		}
+	}
+
+	private void deleteEntry(String key) {
+		try {
+			Files.deleteIfExists(directory.resolve(key + ENTRY_SUFFIX));
+		} catch (IOException e) {
+			// overwritten or deleted by the next eviction
+		}
+	}
+
+	/**
+	 * Indexes the results found in the directory by the time of their last use,
+	 * deleting the oldest beyond the disk capacity and the files of interrupted
+	 * writes
+	 *
+	 * @throws IOException - throws exception if the directory cannot be listed
+	 */
+	private synchronized void loadEntries() throws IOException {
+		Map<Path, FileTime> files = new LinkedHashMap<>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+			for (Path file : entries) {
+				String name = file.getFileName().toString();
+				if (ENTRY_PATTERN.matcher(name).matches() && Files.isRegularFile(file))
+					files.put(file, Files.getLastModifiedTime(file));
+				else if (name.endsWith(TEMP_SUFFIX))
+					Files.deleteIfExists(file);
+			}
+		}
+		List<Path> oldestFirst = new ArrayList<>(files.keySet());
+		oldestFirst.sort(Comparator.comparing(files::get));
+		for (Path file : oldestFirst) {
+			String name = file.getFileName().toString();
+			long size = Files.size(file);
+			disk.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), size);
+			diskBytes += size;
+		}
+		evictFromDisk();
+	}
+
+	/**
+	 * @param data        - content of the source
+	 * @param description - canonical description of the operation
+	 * @return - returns the hex encoded SHA-256 hash of both
+	 */
+	private static String createKey(byte[] data, String description) {
+		MessageDigest digest = createDigest();
+		byte[] contentHash = digest.digest(data);
+		digest.update(contentHash);
+		digest.update(description.getBytes(StandardCharsets.UTF_8));
+		byte[] hash = digest.digest();
+		char[] hex = new char[hash.length * 2];
+		for (int i = 0; i < hash.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+			hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+		}
+		return new String(hex);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import io.github.techgnious.constants.IVConstants;
+import io.github.techgnious.dto.VideoFormats;
+
+/**
+ * Directory holding the temporary files of video encodes.
+ *
+ * The directory can be pointed at fast storage such as a tmpfs mount
+ * (/dev/shm) or an NVMe drive. Every encode reserves the space it expects to
+ * use before creating its files. Once the quota, or the free space of the file
+ * system, is used up, further reservations wait up to the configured time and
+ * are then rejected.
+ *
+ * On creation, temp files left behind by killed processes that are older than
+ * {@link #DEFAULT_ORPHAN_AGE} are deleted. Use {@link #purgeOrphans(Duration)}
+ * for other schedules. Only names with the prefix of this library are purged,
+ * unless the directory is dedicated to this library, where the unprefixed
+ * names of older versions are purged as well.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVScratchSpace {
+
+	/**
+	 * Age after which temp files of this library are assumed to be orphaned
+	 */
+	public static final Duration DEFAULT_ORPHAN_AGE = Duration.ofDays(1);
+
+	private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * Names of the temp files created by this library
+	 */
+	private static final Pattern TEMP_FILE_PATTERN;
+
+	/**
+	 * Names of the temp files created by older versions, with or without the dot
+	 * they left out. Generic enough to clash with other programs, so they are
+	 * only purged in dedicated directories
+	 */
+	private static final Pattern LEGACY_FILE_PATTERN;
+
+	/**
+	 * Names of the temp directories created by this library. Only its own
+	 * prefixes match, as the directories are deleted recursively
+	 */
+	private static final Pattern TEMP_DIRECTORY_PATTERN = Pattern.compile("^("
+			+ Pattern.quote(IVConstants.SEGMENTS_DIRNAME) + "|" + Pattern.quote(IVConstants.FRAMES_DIRNAME) + ")\\d+$");
+
+	static {
+		List<String> extensions = new ArrayList<>();
+		for (VideoFormats format : VideoFormats.values())
+			extensions.add(format.getType());
+		String types = String.join("|", extensions);
+		TEMP_FILE_PATTERN = Pattern.compile("^(" + Pattern.quote(IVConstants.SOURCE_FILENAME) + "|"
+				+ Pattern.quote(IVConstants.TARGET_FILENAME) + ")\\d+\\.(" + types + ")$");
+		LEGACY_FILE_PATTERN = Pattern.compile("^(source|target)\\d+\\.?(" + types + ")$");
+	}
+
+	private final Path directory;
+
+	/**
+	 * Whether the directory holds temp files of this library only
+	 */
+	private final boolean dedicated;
+
+	private final long quota;
+
+	private final long maxWaitNanos;
+
+	/**
+	 * Files of open reservations, which are never purged
+	 */
+	private final Set<Path> liveFiles = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Bytes held by open reservations. Guarded by this
+	 */
+	private long reservedBytes;
+
+	/**
+	 * Creates a scratch space in the JVM temp directory without quota
+	 *
+	 * @return - returns the scratch space
+	 */
+	public static IVScratchSpace createDefault() {
+		try {
+			return new IVScratchSpace(Paths.get(System.getProperty("java.io.tmpdir")), Long.MAX_VALUE, Duration.ZERO);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Creates a scratch space in a directory shared with other programs
+	 *
+	 * @param directory  - location of the temp files, created if missing
+	 * @param quotaBytes - maximum number of bytes reserved at once
+	 * @param maxWait    - how long a reservation waits for space before it is
+	 *                   rejected. Zero rejects immediately
+	 * @throws IOException - throws exception if the directory cannot be created
+	 */
+	public IVScratchSpace(Path directory, long quotaBytes, Duration maxWait) throws IOException {
+		this(directory, quotaBytes, maxWait, false);
+	}
+
+	/**
+	 * @param directory  - location of the temp files, created if missing
+	 * @param quotaBytes - maximum number of bytes reserved at once
+	 * @param maxWait    - how long a reservation waits for space before it is
+	 *                   rejected. Zero rejects immediately
+	 * @param dedicated  - true if the directory is used by this library only, so
+	 *                   that the temp files of older versions are purged too
+	 * @throws IOException - throws exception if the directory cannot be created
+	 */
+	public IVScratchSpace(Path directory, long quotaBytes, Duration maxWait, boolean dedicated) throws IOException {
+		if (quotaBytes <= 0)
+			throw new IllegalArgumentException("Invalid scratch space quota " + quotaBytes);
+		if (maxWait == null || maxWait.isNegative())
+			throw new IllegalArgumentException("Invalid scratch space wait time " + maxWait);
+		this.directory = Files.createDirectories(directory);
+		this.quota = quotaBytes;
+		this.maxWaitNanos = maxWait.toNanos();
+		this.dedicated = dedicated;
+		purgeOrphans(DEFAULT_ORPHAN_AGE);
+	}
+
+	/**
+	 * Reserves space for the temp files of one encode
+	 *
+	 * @param bytes - expected size of the files
+	 * @return - returns the reservation, which must be closed to delete its files
+	 *         and free the space
+	 * @throws IOException - throws exception if the space does not become free in
+	 *                     time
+	 */
+	public Reservation reserve(long bytes) throws IOException {
+		acquire(bytes);
+		return new Reservation(bytes);
+	}
+
+	/**
+	 * Deletes temp files and directories of this library that are older than the
+	 * given age and do not belong to an open reservation
+	 *
+	 * @param minAge - minimum age of the files to delete
+	 * @return - returns the number of deleted files and directories
+	 * @throws IOException - throws exception if the directory cannot be listed
+	 */
+	public int purgeOrphans(Duration minAge) throws IOException {
+		long cutoff = System.currentTimeMillis() - minAge.toMillis();
+		int purged = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				if (liveFiles.contains(file))
+					continue;
+				String name = file.getFileName().toString();
+				try {
+					if (TEMP_FILE_PATTERN.matcher(name).matches()
+							|| dedicated && LEGACY_FILE_PATTERN.matcher(name).matches()) {
+						if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() < cutoff
+								&& Files.deleteIfExists(file))
+							purged++;
+					} else if (TEMP_DIRECTORY_PATTERN.matcher(name).matches() && Files.isDirectory(file)
+							&& Files.getLastModifiedTime(file).toMillis() < cutoff) {
+						delete(file);
+						purged++;
+					}
+				} catch (IOException e) {
+					// in use or owned by someone else, left alone
+				}
+			}
+		}
+		return purged;
+	}
+
+	/**
+	 * @return the directory
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the quota
+	 */
+	public long getQuota() {
+		return quota;
+	}
+
+	/**
+	 * @return the number of bytes held by open reservations
+	 */
+	public synchronized long getReservedBytes() {
+		return reservedBytes;
+	}
+
+	/**
+	 * Waits until the bytes fit in the quota and on the file system
+	 *
+	 * @param bytes
+	 * @throws IOException
+	 */
+	private synchronized void acquire(long bytes) throws IOException {
+		if (bytes > quota)
+			throw new IOException("Scratch space of " + quota + " bytes cannot hold " + bytes + " bytes");
+		long deadline = System.nanoTime() + maxWaitNanos;
+		while (!fits(bytes)) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				throw new IOException("Scratch space " + directory + " is full, " + reservedBytes + " of " + quota
+						+ " bytes reserved");
+			try {
+				// poll, as other processes may free space on the file system as well
+				TimeUnit.NANOSECONDS.timedWait(this, Math.min(remaining, POLL_INTERVAL_NANOS));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for scratch space");
+			}
+		}
+		reservedBytes += bytes;
+	}
+
+	private boolean fits(long bytes) throws IOException {
+		if (reservedBytes > quota - bytes)
+			return false;
+		// small tmpfs mounts fill up long before a generous quota is used
+		return bytes == 0 || Files.getFileStore(directory).getUsableSpace() >= bytes;
+	}
+
+	private synchronized void release(long bytes) {
+		reservedBytes -= bytes;
+		notifyAll();
+	}
+
+	/**
+	 * Deletes the file, or the directory with its content
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	private static void delete(Path file) throws IOException {
+		if (Files.isDirectory(file)) {
+			try (DirectoryStream<Path> children = Files.newDirectoryStream(file)) {
+				for (Path child : children)
+					delete(child);
+			}
+		}
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * Space reserved for the temp files of one encode
+	 */
+	public final class Reservation implements AutoCloseable {
+
+		private long bytes;
+
+		private final List<Path> files = new ArrayList<>();
+
+		private boolean closed;
+
+		private Reservation(long bytes) {
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Creates an empty temp file, e.g. ivcompressor-source123.mp4
+		 *
+		 * @param prefix - start of the file name
+		 * @param format - format of the video stored in the file
+		 * @return - returns the path of the file
+		 * @throws IOException - throws exception if the file cannot be created
+		 */
+		public synchronized Path createFile(String prefix, VideoFormats format) throws IOException {
+			if (closed)
+				throw new IllegalStateException("Reservation is closed");
+			Path file = Files.createTempFile(directory, prefix, "." + format.getType());
+			files.add(file);
+			liveFiles.add(file);
+			return file;
+		}
+
+		/**
+		 * Creates an empty temp directory, e.g. ivcompressor-segments123, for tools
+		 * writing a series of files. The directory is deleted with its content
+		 *
+		 * @param prefix - start of the directory name
+		 * @return - returns the path of the directory
+		 * @throws IOException - throws exception if the directory cannot be created
+		 */
+		public synchronized Path createDirectory(String prefix) throws IOException {
+			if (closed)
+				throw new IllegalStateException("Reservation is closed");
+			Path file = Files.createTempDirectory(directory, prefix);
+			files.add(file);
+			liveFiles.add(file);
+			return file;
+		}
+
+		/**
+		 * Reserves additional space, for files whose size was not known upfront
+		 *
+		 * @param additionalBytes - bytes to add to the reservation
+		 * @throws IOException - throws exception if the space does not become free
+		 *                     in time
+		 */
+		public void extend(long additionalBytes) throws IOException {
+			acquire(additionalBytes);
+			synchronized (this) {
+				if (closed) {
+					release(additionalBytes);
+					throw new IllegalStateException("Reservation is closed");
+				}
+				bytes += additionalBytes;
+			}
+		}
+
+		/**
+		 * @return the reserved bytes
+		 */
+		public synchronized long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Deletes the files and directories of the reservation and frees its space
+		 */
+		@Override
+		public synchronized void close() {
+			if (closed)
+				return;
+			closed = true;
+			for (Path file : files) {
+				try {
+					delete(file);
+				} catch (IOException e) {
+					// left to the janitor
+				}
+				liveFiles.remove(file);
+			}
+			release(bytes);
+		}
+	}
+}
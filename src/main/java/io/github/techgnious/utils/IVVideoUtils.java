@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import io.github.techgnious.dto.H264Profile;
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.VideoProfile;
+import ws.schild.jave.info.AudioInfo;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.info.VideoInfo;
+import ws.schild.jave.info.VideoSize;
+
+/**
+ * Util Class to compare video profiles with the probed attributes of a source
+ * video
+ *
+ * Values ffmpeg does not report for a source, e.g. the bitrate of some
+ * containers, are treated as unknown: they never limit an attribute and never
+ * allow the encode to be skipped.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public class IVVideoUtils {
+
+	private IVVideoUtils() {
+	}
+
+	/**
+	 * Lowers the attributes of the profile that exceed the source. The size is
+	 * kept as in the source if the source fits into it, otherwise it is scaled
+	 * down with its aspect ratio until it fits into the source; frame rate,
+	 * sampling rate and channels are kept as in the source if lower, bitrates
+	 * are capped at the source bitrates.
+	 *
+	 * @param profile - profile to clamp
+	 * @param source  - probed attributes of the source video
+	 * @return - returns the clamped profile
+	 */
+	public static VideoProfile clampToSource(VideoProfile profile, MultimediaInfo source) {
+		VideoProfile.Builder clamped = profile.toBuilder();
+		VideoInfo video = source.getVideo();
+		if (video != null) {
+			if (fitsInto(video.getSize(), profile.getSize()))
+				clamped.size(null);
+			else if (profile.getSize() != null)
+				clamped.size(scaleInto(profile.getSize(), video.getSize()));
+			if (video.getFrameRate() > 0 && profile.getFrameRate() != null
+					&& video.getFrameRate() <= profile.getFrameRate())
+				clamped.frameRate(null);
+			clamped.videoBitRate(min(profile.getVideoBitRate(), video.getBitRate()));
+			clamped.maxBitRate(min(profile.getMaxBitRate(), video.getBitRate()));
+		}
+		AudioInfo audio = source.getAudio();
+		if (audio != null) {
+			clamped.audioBitRate(min(profile.getAudioBitRate(), audio.getBitRate()));
+			if (audio.getChannels() > 0 && profile.getChannels() != null
+					&& audio.getChannels() <= profile.getChannels())
+				clamped.channels(null);
+			if (audio.getSamplingRate() > 0 && profile.getSamplingRate() != null
+					&& audio.getSamplingRate() <= profile.getSamplingRate())
+				clamped.samplingRate(null);
+		}
+		return clamped.build();
+	}
+
+	/**
+	 * Checks whether the source already has the codecs of the profile and is
+	 * within all its limits, so that encoding it would not make it any smaller
+	 *
+	 * @param source  - probed attributes of the source video
+	 * @param profile - profile the source is compared with
+	 * @return - returns true if the source does not need to be re-encoded
+	 */
+	public static boolean isWithinProfile(MultimediaInfo source, VideoProfile profile) {
+		VideoInfo video = source.getVideo();
+		if (video == null)
+			return false;
+		// constant quality gives no bitrate to compare with
+		if (profile.getCrf() != null && profile.getMaxBitRate() == null)
+			return false;
+		if (!hasCodec(video.getDecoder(), profile.getVideoCodec())
+				|| !hasH264Profile(video.getDecoder(), profile.getH264Profile()))
+			return false;
+		if (profile.getSize() != null && !fitsInto(video.getSize(), profile.getSize()))
+			return false;
+		if (!isAtMost(video.getFrameRate(), profile.getFrameRate())
+				|| !isAtMost(video.getBitRate(), profile.getCrf() == null ? profile.getVideoBitRate() : null)
+				|| !isAtMost(video.getBitRate(), profile.getMaxBitRate()))
+			return false;
+		AudioInfo audio = source.getAudio();
+		if (audio == null)
+			return true;
+		return hasCodec(audio.getDecoder(), profile.getAudioCodec())
+				&& isAtMost(audio.getBitRate(), profile.getAudioBitRate())
+				&& isAtMost(audio.getChannels(), profile.getChannels())
+				&& isAtMost(audio.getSamplingRate(), profile.getSamplingRate());
+	}
+
+	/**
+	 * @param decoder - codec as reported by ffmpeg, e.g. "h264 (Main) (avc1 /
+	 *                0x31637661)"
+	 * @param codec   - codec of the profile. Null accepts any codec
+	 * @return - returns true if the decoder is the codec
+	 */
+	private static boolean hasCodec(String decoder, String codec) {
+		if (codec == null)
+			return true;
+		return decoder != null && (decoder.equals(codec) || decoder.startsWith(codec + " "));
+	}
+
+	/**
+	 * Checks that the H.264 profile of the source is supported by every decoder
+	 * of the given profile. Constrained baseline is a subset of main and main a
+	 * subset of high.
+	 *
+	 * @param decoder - codec as reported by ffmpeg
+	 * @param profile - required profile. Null accepts any profile
+	 * @return - returns true if the source can be decoded by the profile
+	 */
+	private static boolean hasH264Profile(String decoder, H264Profile profile) {
+		if (profile == null || decoder == null || !decoder.startsWith("h264 "))
+			return true;
+		int rank = h264ProfileRank(decoder);
+		switch (profile) {
+		case BASELINE:
+			return rank == 0;
+		case MAIN:
+			return rank <= 1;
+		default:
+			return rank <= 2;
+		}
+	}
+
+	private static int h264ProfileRank(String decoder) {
+		if (decoder.startsWith("h264 (Constrained Baseline)") || decoder.startsWith("h264 (Baseline)"))
+			return 0;
+		if (decoder.startsWith("h264 (Main)"))
+			return 1;
+		if (decoder.startsWith("h264 (High)"))
+			return 2;
+		return 3;
+	}
+
+	/**
+	 * Scales the size down, keeping its aspect ratio, until it fits into the
+	 * source in both dimensions, e.g. 1280x720 becomes 640x360 for a 640x1136
+	 * portrait source
+	 *
+	 * @param size   - size of the profile
+	 * @param source - size of the source video. Can be null if not known
+	 * @return - returns the scaled size, with even dimensions as required by
+	 *         the yuv420p encoders
+	 */
+	private static IVSize scaleInto(IVSize size, VideoSize source) {
+		if (source == null || source.getWidth() <= 0 || source.getHeight() <= 0)
+			return size;
+		double factor = Math.min((double) source.getWidth() / size.getWidth(),
+				(double) source.getHeight() / size.getHeight());
+		if (factor >= 1)
+			return size;
+		int width = Math.max(2, (int) (size.getWidth() * factor) & ~1);
+		int height = Math.max(2, (int) (size.getHeight() * factor) & ~1);
+		return new IVSize(width, height);
+	}
+
+	private static boolean fitsInto(VideoSize size, IVSize limit) {
+		return size != null && limit != null && size.getWidth() <= limit.getWidth()
+				&& size.getHeight() <= limit.getHeight();
+	}
+
+	/**
+	 * @param value - value of the source, not positive if unknown
+	 * @param limit - limit of the profile. Null for no limit
+	 * @return - returns true if the value is known to be within the limit
+	 */
+	private static boolean isAtMost(float value, Integer limit) {
+		return limit == null || (value > 0 && value <= limit);
+	}
+
+	private static Integer min(Integer limit, int sourceValue) {
+		if (limit == null || sourceValue <= 0)
+			return limit;
+		return Math.min(limit, sourceValue);
+	}
+}
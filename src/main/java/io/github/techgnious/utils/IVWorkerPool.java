@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.techgnious.dto.RejectionPolicy;
+
+/**
+ * Bounded pool of worker threads running encoding tasks.
+ *
+ * Every video encode runs a separate ffmpeg process, so the number of workers
+ * caps the number of processes running at once. Tasks submitted while all
+ * workers are busy wait in a queue of limited size, and the
+ * {@link RejectionPolicy} decides what happens once the queue is full.
+ *
+ * Workers are daemon threads that stop after a minute without work.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class IVWorkerPool implements AutoCloseable {
+
+	private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+	private final ThreadPoolExecutor executor;
+
+	private final int queueCapacity;
+
+	/**
+	 * Creates a pool sized for the machine: one worker per two cores, as ffmpeg
+	 * already encodes each video on several threads, and a queue of 16 tasks per
+	 * worker. Tasks beyond the queue are rejected.
+	 *
+	 * @return - returns the new pool
+	 */
+	public static IVWorkerPool createDefault() {
+		int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		return new IVWorkerPool(workers, workers * 16, RejectionPolicy.ABORT);
+	}
+
+	/**
+	 * @param workers         - maximum number of tasks running at once
+	 * @param queueCapacity   - maximum number of tasks waiting for a worker. Zero
+	 *                        hands tasks directly to idle workers only
+	 * @param rejectionPolicy - what to do with tasks once the queue is full
+	 */
+	public IVWorkerPool(int workers, int queueCapacity, RejectionPolicy rejectionPolicy) {
+		if (workers < 1)
+			throw new IllegalArgumentException("Worker pool needs at least one worker");
+		if (queueCapacity < 0)
+			throw new IllegalArgumentException("Invalid queue capacity " + queueCapacity);
+		if (rejectionPolicy == null)
+			throw new IllegalArgumentException("No rejection policy specified");
+		this.queueCapacity = queueCapacity;
+		BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<>()
+				: new ArrayBlockingQueue<>(queueCapacity);
+		executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, queue,
+				new WorkerThreadFactory(POOL_NUMBER.incrementAndGet()), createHandler(rejectionPolicy));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Submits the task to the pool.
+	 *
+	 * The returned future completes with the result of the task, or exceptionally
+	 * with the exception thrown by the task or a
+	 * {@link RejectedExecutionException} if the pool did not accept it.
+	 * Cancelling the future before a worker picks the task up skips the task.
+	 *
+	 * @param task - work to run
+	 * @return - returns the future result of the task
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				if (future.isDone())
+					return;
+				try {
+					future.complete(task.call());
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * @return the maximum number of tasks running at once
+	 */
+	public int getWorkers() {
+		return executor.getMaximumPoolSize();
+	}
+
+	/**
+	 * @return the maximum number of tasks waiting for a worker
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @return the number of tasks currently running
+	 */
+	public int getActiveTasks() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * @return the number of tasks currently waiting for a worker
+	 */
+	public int getQueuedTasks() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Stops accepting new tasks. Tasks already submitted are still run
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Creates the handler applying the policy to tasks the executor cannot queue
+	 *
+	 * @param rejectionPolicy
+	 * @return - returns the handler
+	 */
+	private static RejectedExecutionHandler createHandler(RejectionPolicy rejectionPolicy) {
+		switch (rejectionPolicy) {
+		case CALLER_RUNS:
+			return (task, executor) -> {
+				if (executor.isShutdown())
+					throw new RejectedExecutionException("Worker pool is shut down");
+				task.run();
+			};
+		case BLOCK:
+			return (task, executor) -> {
+				if (executor.isShutdown())
+					throw new RejectedExecutionException("Worker pool is shut down");
+				try {
+					executor.getQueue().put(task);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RejectedExecutionException("Interrupted while waiting for the worker queue", e);
+				}
+				// a shutdown during the put may leave the task behind the last worker
+				if (executor.isShutdown() && executor.remove(task))
+					throw new RejectedExecutionException("Worker pool is shut down");
+			};
+		default:
+			return (task, executor) -> {
+				throw new RejectedExecutionException(executor.isShutdown() ? "Worker pool is shut down"
+						: "Worker queue is full with " + executor.getQueue().size() + " tasks");
+			};
+		}
+	}
+
+	/**
+	 * Creates named daemon worker threads, so that idle pools never keep the JVM
+	 * alive
+	 */
+	private static final class WorkerThreadFactory implements ThreadFactory {
+
+		private final int poolNumber;
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		WorkerThreadFactory(int poolNumber) {
+			this.poolNumber = poolNumber;
+		}
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "ivcompressor-" + poolNumber + "-worker-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.techgnious.dto.IVStageMetrics;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.ImageProfile;
+import io.github.techgnious.dto.ProcessingStage;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.exception.ImageException;
+import io.github.techgnious.resample.Resamplers;
+import io.github.techgnious.utils.IVResultCache;
+
+/**
+ * Unit tests for the image operations of {@link IVCompressor}
+ */
+public class IVCompressorImageTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final IVCompressor compressor = new IVCompressor();
+
+	@Test
+	public void resizeImageScalesToResolution() throws Exception {
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "jpg");
+		BufferedImage image = decode(compressor.resizeImage(data, ImageFormats.JPG, ResizeResolution.R240P));
+		assertEquals(426, image.getWidth());
+		assertEquals(240, image.getHeight());
+	}
+
+	@Test
+	public void resizeImageReturnsCachedResults() throws Exception {
+		IVResultCache cache = new IVResultCache(1 << 20);
+		IVCompressor caching = IVCompressor.builder().resultCache(cache).build();
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "jpg");
+		byte[] resized = caching.resizeImage(data, ImageFormats.JPG, ResizeResolution.R240P);
+		assertEquals(resized.length, cache.getMemoryBytes());
+		assertArrayEquals(resized, caching.resizeImage(data.clone(), ImageFormats.JPG, ResizeResolution.R240P));
+		assertEquals(resized.length, cache.getMemoryBytes());
+	}
+
+	@Test
+	public void resizeImageReportsStageMetrics() throws Exception {
+		List<IVStageMetrics> stages = new ArrayList<>();
+		IVCompressor measured = IVCompressor.builder().metricsListener(stages::add).build();
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_ARGB), "png");
+		byte[] resized = measured.resizeImage(data, ImageFormats.JPG, ResizeResolution.R240P);
+		assertEquals(4, stages.size());
+		assertEquals(ProcessingStage.IMAGE_DECODE, stages.get(0).getStage());
+		// decoded subsampled by 3
+		assertEquals(534L * 400, stages.get(0).getPixels());
+		assertEquals(1600, stages.get(0).getSourceWidth());
+		assertEquals(1200, stages.get(0).getSourceHeight());
+		assertTrue(stages.get(0).getBytesIn() > 0);
+		assertEquals(ProcessingStage.IMAGE_SCALE, stages.get(1).getStage());
+		assertEquals(426L * 240, stages.get(1).getPixels());
+		assertEquals(534, stages.get(1).getSourceWidth());
+		assertEquals(ProcessingStage.IMAGE_FLATTEN, stages.get(2).getStage());
+		IVStageMetrics encode = stages.get(3);
+		assertEquals(ProcessingStage.IMAGE_ENCODE, encode.getStage());
+		assertEquals("jpg", encode.getFormat());
+		assertEquals(resized.length, encode.getBytesOut());
+		for (IVStageMetrics stage : stages) {
+			assertFalse(stage.isFailed());
+			assertTrue(stage.getDurationNanos() > 0);
+		}
+	}
+
+	@Test
+	public void retainSmallerImageReturnsOriginalBytes() throws Exception {
+		byte[] data = encode(new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB), "jpg");
+		byte[] resized = compressor.resizeImage(data, ImageFormats.JPEG, ResizeResolution.R480P, true);
+		assertArrayEquals(data, resized);
+	}
+
+	@Test
+	public void retainSmallerImageCopiesStreamsThrough() throws Exception {
+		byte[] data = encode(new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB), "jpg");
+		ImageProfile profile = ImageProfile.builder(ImageFormats.JPEG).resolution(ResizeResolution.R480P)
+				.retainSmallerImage(true).build();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		compressor.resizeImage(new ByteArrayInputStream(data), out, profile);
+		assertArrayEquals(data, out.toByteArray());
+		Path source = folder.newFile("small.jpg").toPath();
+		Files.write(source, data);
+		Path target = compressor.resizeImage(source, folder.getRoot().toPath().resolve("retained.jpg"), profile);
+		assertArrayEquals(data, Files.readAllBytes(target));
+	}
+
+	@Test
+	public void retainSmallerImageReencodesOtherFormatsOfStreams() throws Exception {
+		byte[] data = encode(new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB), "png");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		compressor.resizeImage(new ByteArrayInputStream(data), out, ImageProfile.builder(ImageFormats.JPG)
+				.resolution(ResizeResolution.R480P).retainSmallerImage(true).build());
+		BufferedImage image = decode(out.toByteArray());
+		assertEquals(100, image.getWidth());
+		assertEquals(80, image.getHeight());
+	}
+
+	@Test
+	public void retainSmallerImageReencodesOtherFormats() throws Exception {
+		byte[] data = encode(new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB), "png");
+		byte[] resized = compressor.resizeImage(data, ImageFormats.JPG, ResizeResolution.R480P, true);
+		assertNotSame(data, resized);
+		BufferedImage image = decode(resized);
+		assertEquals(100, image.getWidth());
+		assertEquals(80, image.getHeight());
+	}
+
+	@Test
+	public void resizeImageRendersAllResolutionsFromOneInput() throws Exception {
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png");
+		List<ResizeResolution> resolutions = Arrays.asList(ResizeResolution.SMALL_THUMBNAIL,
+				ResizeResolution.R720P, ResizeResolution.THUMBNAIL, ResizeResolution.IMAGE_DEFAULT);
+		Map<ResizeResolution, byte[]> renditions = compressor.resizeImage(data, ImageFormats.PNG, resolutions);
+		assertEquals(resolutions, new ArrayList<>(renditions.keySet()));
+		for (ResizeResolution resolution : resolutions) {
+			BufferedImage image = decode(renditions.get(resolution));
+			assertEquals(resolution.getWidth(), image.getWidth());
+			assertEquals(resolution.getHeight(), image.getHeight());
+		}
+	}
+
+	@Test
+	public void resizeImageStreamsBetweenStreams() throws Exception {
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_ARGB), "png");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		compressor.resizeImage(new ByteArrayInputStream(data), out, ImageFormats.JPG, ResizeResolution.THUMBNAIL);
+		BufferedImage image = decode(out.toByteArray());
+		assertEquals(189, image.getWidth());
+		assertEquals(100, image.getHeight());
+	}
+
+	@Test
+	public void resizeImageStreamsBetweenFiles() throws Exception {
+		Path source = folder.newFile("source.png").toPath();
+		Path target = folder.newFile("target.png").toPath();
+		Files.write(source, encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png"));
+		Files.write(target, new byte[1 << 20]);
+		compressor.resizeImage(source, target, ImageFormats.PNG, ResizeResolution.SMALL_THUMBNAIL);
+		BufferedImage image = decode(Files.readAllBytes(target));
+		assertEquals(100, image.getWidth());
+		assertEquals(100, image.getHeight());
+	}
+
+	@Test
+	public void resizeImageWithProfilesDoesNotShareState() throws Exception {
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png");
+		ImageProfile thumbnail = ImageProfile.builder(ImageFormats.JPG).resolution(ResizeResolution.THUMBNAIL).build();
+		ImageProfile large = ImageProfile.builder(ImageFormats.PNG).resolution(ResizeResolution.R720P)
+				.resampler(Resamplers.LANCZOS3).build();
+		List<Future<byte[]>> results = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int i = 0; i < 8; i++) {
+				ImageProfile profile = i % 2 == 0 ? thumbnail : large;
+				results.add(executor.submit(() -> compressor.resizeImage(data, profile)));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				BufferedImage image = decode(results.get(i).get());
+				assertEquals(i % 2 == 0 ? 189 : 1280, image.getWidth());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// legacy calls no longer leak their resolution into later calls
+		compressor.resizeImage(data, ImageFormats.JPG, ResizeResolution.THUMBNAIL);
+		assertEquals(480, decode(compressor.resizeImage(data, ImageFormats.JPG, (ResizeResolution) null)).getWidth());
+	}
+
+	@Test
+	public void resizeImageCoalescesConcurrentDuplicates() throws Exception {
+		IVCompressor coalescing = IVCompressor.builder().coalesceDuplicates(true).build();
+		byte[] data = encode(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png");
+		List<Future<byte[]>> results = new ArrayList<>();
+		List<Future<byte[]>> failures = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int i = 0; i < 8; i++) {
+				results.add(
+						executor.submit(() -> coalescing.resizeImage(data, ImageFormats.JPG, ResizeResolution.R240P)));
+				failures.add(executor.submit(() -> coalescing.resizeImage(new byte[] { 1, 2, 3 }, ImageFormats.JPG,
+						ResizeResolution.R240P)));
+			}
+			byte[] first = results.get(0).get();
+			for (Future<byte[]> result : results) {
+				assertArrayEquals(first, result.get());
+				if (result != results.get(0))
+					assertNotSame(first, result.get());
+			}
+			for (Future<byte[]> failure : failures) {
+				try {
+					failure.get();
+					throw new AssertionError("Invalid image was resized");
+				} catch (ExecutionException e) {
+					assertTrue(e.getCause() instanceof ImageException);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void resizeImageRendersAllProfilesFromOneInput() throws Exception {
+		byte[] data = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png");
+		ImageProfile retained = ImageProfile.builder(ImageFormats.PNG).resolution(ResizeResolution.R480P)
+				.retainSmallerImage(true).build();
+		ImageProfile thumbnail = ImageProfile.builder(ImageFormats.JPG).resolution(ResizeResolution.THUMBNAIL).build();
+		List<byte[]> renditions = compressor.resizeImage(data, Arrays.asList(retained, thumbnail));
+		assertArrayEquals(data, renditions.get(0));
+		assertEquals(189, decode(renditions.get(1)).getWidth());
+	}
+
+	@Test(expected = ImageException.class)
+	public void resizeImageRejectsInvalidData() throws Exception {
+		compressor.resizeImage(new byte[] { 1, 2, 3 }, ImageFormats.PNG, ResizeResolution.THUMBNAIL);
+	}
+
+	static byte[] encode(BufferedImage image, String format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+
+	static BufferedImage decode(byte[] data) throws IOException {
+		return ImageIO.read(new ByteArrayInputStream(data));
+	}
+}
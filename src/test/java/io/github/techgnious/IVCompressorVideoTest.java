@@ -0,0 +1,408 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.techgnious.dto.H264Profile;
+import io.github.techgnious.dto.IVProgress;
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.IVStageMetrics;
+import io.github.techgnious.dto.IVStoryboard;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.ProcessingStage;
+import io.github.techgnious.dto.ReencodePolicy;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.dto.StreamingFormats;
+import io.github.techgnious.dto.TransferMode;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoPreset;
+import io.github.techgnious.dto.VideoProfile;
+import io.github.techgnious.exception.VideoException;
+import io.github.techgnious.utils.IVScratchSpace;
+import ws.schild.jave.MultimediaObject;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.info.VideoSize;
+import ws.schild.jave.process.ProcessWrapper;
+import ws.schild.jave.process.ffmpeg.DefaultFFMPEGLocator;
+
+/**
+ * Unit tests for the video operations of {@link IVCompressor}
+ */
+public class IVCompressorVideoTest {
+
+	@ClassRule
+	public static TemporaryFolder sources = new TemporaryFolder();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Path video;
+
+	private static Path mpeg4Video;
+
+	private static Path longVideo;
+
+	private final IVCompressor compressor = new IVCompressor();
+
+	@BeforeClass
+	public static void createVideo() throws Exception {
+		video = createVideo("source.mp4", "libx264", 2, "640x480");
+		mpeg4Video = createVideo("mpeg4.mp4", "mpeg4", 2, "640x480");
+		longVideo = createVideo("long.mp4", "libx264", 20, "320x240");
+	}
+
+	private static Path createVideo(String name, String videoCodec, int seconds, String size) throws Exception {
+		Path video = sources.getRoot().toPath().resolve(name);
+		ProcessWrapper ffmpeg = new DefaultFFMPEGLocator().createExecutor();
+		for (String argument : new String[] { "-f", "lavfi", "-i",
+				"testsrc=duration=" + seconds + ":size=" + size + ":rate=25", "-f", "lavfi", "-i",
+				"sine=duration=" + seconds, "-c:v", videoCodec, "-pix_fmt", "yuv420p", "-c:a", "aac", "-movflags", "faststart", "-y",
+				video.toString() })
+			ffmpeg.addArgument(argument);
+		ffmpeg.execute();
+		try {
+			assertEquals(0, ffmpeg.getProcessExitCode());
+		} finally {
+			ffmpeg.destroy();
+		}
+		return video;
+	}
+
+	@Test
+	public void reduceVideoSizeEncodesBetweenFiles() throws Exception {
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		compressor.reduceVideoSize(video, target, VideoFormats.MP4, ResizeResolution.R240P);
+		VideoSize size = new MultimediaObject(target.toFile()).getInfo().getVideo().getSize();
+		assertEquals(426, size.getWidth().intValue());
+		assertEquals(240, size.getHeight().intValue());
+	}
+
+	@Test
+	public void reduceVideoSizeStreamsThroughPipes() throws Exception {
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R240P)
+				.transferMode(TransferMode.PIPES).build();
+		byte[] data = compressor.reduceVideoSize(Files.readAllBytes(video), profile);
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		Files.write(target, data);
+		MultimediaInfo info = new MultimediaObject(target.toFile()).getInfo();
+		assertEquals(426, info.getVideo().getSize().getWidth().intValue());
+		assertTrue(info.getDuration() > 1500);
+	}
+
+	@Test
+	public void reduceVideoSizeReportsStageMetrics() throws Exception {
+		List<IVStageMetrics> stages = new ArrayList<>();
+		IVCompressor measured = IVCompressor.builder().metricsListener(stages::add).build();
+		byte[] data = Files.readAllBytes(video);
+		byte[] resized = measured.reduceVideoSize(data, VideoFormats.MP4, ResizeResolution.R240P);
+		assertEquals(3, stages.size());
+		assertEquals(ProcessingStage.VIDEO_WRITE, stages.get(0).getStage());
+		assertEquals(data.length, stages.get(0).getBytesOut());
+		IVStageMetrics encode = stages.get(1);
+		assertEquals(ProcessingStage.VIDEO_ENCODE, encode.getStage());
+		assertEquals("mp4", encode.getFormat());
+		assertEquals(data.length, encode.getBytesIn());
+		assertEquals(resized.length, encode.getBytesOut());
+		assertEquals(Integer.valueOf(0), encode.getExitCode());
+		assertEquals(ProcessingStage.VIDEO_READ, stages.get(2).getStage());
+		assertEquals(resized.length, stages.get(2).getBytesIn());
+	}
+
+	@Test
+	public void reduceVideoSizeEncodesWithPresetAndCrf() throws Exception {
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R240P)
+				.preset(VideoPreset.ULTRAFAST).crf(30).maxBitRate(500000).threads(1).build();
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		compressor.reduceVideoSize(video, target, profile);
+		assertEquals(426, new MultimediaObject(target.toFile()).getInfo().getVideo().getSize().getWidth().intValue());
+	}
+
+	@Test
+	public void reduceVideoSizeReturnsSourcesWithinTheProfile() throws Exception {
+		byte[] small = compressor.reduceVideoSize(Files.readAllBytes(video), VideoFormats.MP4, ResizeResolution.R240P);
+		VideoProfile larger = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R480P)
+				.videoBitRate(2000000).frameRate(30).audioBitRate(128000).build();
+		assertArrayEquals(small, compressor.reduceVideoSize(small, larger));
+	}
+
+	@Test
+	public void reduceVideoSizeNeverUpscales() throws Exception {
+		VideoProfile.Builder profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R720P);
+		Path clamped = folder.getRoot().toPath().resolve("clamped.mp4");
+		compressor.reduceVideoSize(video, clamped, profile.build());
+		assertEquals(640, new MultimediaObject(clamped.toFile()).getInfo().getVideo().getSize().getWidth().intValue());
+		Path upscaled = folder.getRoot().toPath().resolve("upscaled.mp4");
+		compressor.reduceVideoSize(video, upscaled, profile.reencodePolicy(ReencodePolicy.ALWAYS).build());
+		assertEquals(1280, new MultimediaObject(upscaled.toFile()).getInfo().getVideo().getSize().getWidth().intValue());
+	}
+
+	@Test
+	public void reduceVideoSizeEncodesSegmentsInParallel() throws Exception {
+		Path scratch = folder.newFolder("scratch").toPath();
+		IVCompressor segmenting = IVCompressor.builder()
+				.scratchSpace(new IVScratchSpace(scratch, Long.MAX_VALUE, Duration.ZERO)).build();
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R240P)
+				.parallelSegments(4).reencodePolicy(ReencodePolicy.ALWAYS).build();
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		segmenting.reduceVideoSize(longVideo, target, profile);
+		MultimediaInfo info = new MultimediaObject(target.toFile()).getInfo();
+		assertEquals(426, info.getVideo().getSize().getWidth().intValue());
+		assertEquals(20000, info.getDuration(), 500);
+		assertTrue(info.getAudio() != null);
+		try (Stream<Path> files = Files.list(scratch)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	public void submitVideoJobReportsProgress() throws Exception {
+		List<IVProgress> reports = new CopyOnWriteArrayList<>();
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R240P)
+				.reencodePolicy(ReencodePolicy.ALWAYS).build();
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		IVVideoJob<Path> job = compressor.submitVideoJob(longVideo, target, profile, reports::add, null);
+		assertEquals(target, job.getResult().get());
+		assertFalse(reports.isEmpty());
+		IVProgress last = reports.get(reports.size() - 1);
+		assertEquals(20000, last.getTotal().toMillis(), 500);
+		assertTrue(last.getPermille() > 900);
+		assertTrue(last.getFrames() > 0);
+		assertTrue(last.getSpeed() > 0);
+		assertEquals(last, job.getProgress());
+	}
+
+	@Test
+	public void submitVideoJobCancelKillsFfmpeg() throws Exception {
+		AtomicReference<IVVideoJob<Path>> job = new AtomicReference<>();
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R480P)
+				.preset(VideoPreset.VERYSLOW).reencodePolicy(ReencodePolicy.ALWAYS).build();
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		job.set(compressor.submitVideoJob(longVideo, target, profile, progress -> {
+			if (job.get() != null)
+				job.get().cancel();
+		}, null));
+		try {
+			job.get().getResult().get();
+			throw new AssertionError("Cancelled job completed");
+		} catch (CancellationException e) {
+			assertTrue(job.get().isDone());
+		}
+	}
+
+	@Test
+	public void submitVideoJobTimesOut() throws Exception {
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R480P)
+				.preset(VideoPreset.VERYSLOW).reencodePolicy(ReencodePolicy.ALWAYS).build();
+		IVVideoJob<byte[]> job = compressor.submitVideoJob(Files.readAllBytes(longVideo), profile, null,
+				Duration.ofMillis(200));
+		try {
+			job.getResult().get();
+			throw new AssertionError("Job did not time out");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void reduceVideoSizeWritesAllRenditionsInOneRun() throws Exception {
+		Map<ResizeResolution, byte[]> renditions = compressor.reduceVideoSize(Files.readAllBytes(video),
+				VideoFormats.MP4, Arrays.asList(ResizeResolution.R240P, ResizeResolution.R360P));
+		assertEquals(Arrays.asList(ResizeResolution.R240P, ResizeResolution.R360P),
+				new ArrayList<>(renditions.keySet()));
+		Path small = folder.getRoot().toPath().resolve("small.mp4");
+		Files.write(small, renditions.get(ResizeResolution.R240P));
+		assertEquals(426, new MultimediaObject(small.toFile()).getInfo().getVideo().getSize().getWidth().intValue());
+		Path medium = folder.getRoot().toPath().resolve("medium.mp4");
+		Files.write(medium, renditions.get(ResizeResolution.R360P));
+		MultimediaInfo info = new MultimediaObject(medium.toFile()).getInfo();
+		assertEquals(480, info.getVideo().getSize().getWidth().intValue());
+		assertTrue(info.getAudio() != null);
+	}
+
+	@Test
+	public void reduceVideoSizeWritesRenditionsToFiles() throws Exception {
+		List<Path> targets = Arrays.asList(folder.getRoot().toPath().resolve("small.mkv"),
+				folder.getRoot().toPath().resolve("small.flv"));
+		VideoProfile.Builder profile = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R240P);
+		compressor.reduceVideoSize(video, targets,
+				Arrays.asList(profile.outputFormat(VideoFormats.MKV).build(),
+						profile.outputFormat(VideoFormats.FLV).build()));
+		assertTrue(new MultimediaObject(targets.get(0).toFile()).getInfo().getFormat().contains("matroska"));
+		assertEquals("flv", new MultimediaObject(targets.get(1).toFile()).getInfo().getFormat());
+	}
+
+	@Test
+	public void packageVideoWritesHlsPlaylists() throws Exception {
+		Path directory = folder.getRoot().toPath().resolve("hls");
+		VideoProfile.Builder profile = VideoProfile.builder(VideoFormats.MP4);
+		Path master = compressor.packageVideo(longVideo, directory, StreamingFormats.HLS, Duration.ofSeconds(4),
+				Arrays.asList(profile.resolution(ResizeResolution.R240P).build(),
+						profile.size(new IVSize(160, 120)).videoBitRate(80000).build()));
+		assertEquals(directory.resolve("master.m3u8"), master);
+		String playlist = new String(Files.readAllBytes(master), StandardCharsets.UTF_8);
+		assertTrue(playlist.contains("stream_0.m3u8"));
+		assertTrue(playlist.contains("stream_1.m3u8"));
+		List<String> media = Files.readAllLines(directory.resolve("stream_1.m3u8"));
+		assertEquals("#EXTINF:4.000000,", media.stream().filter(line -> line.startsWith("#EXTINF")).findFirst().get());
+		assertTrue(media.stream().filter(line -> line.startsWith("#EXTINF")).count() >= 5);
+		assertTrue(Files.exists(directory.resolve("stream_1_00000.ts")));
+	}
+
+	@Test
+	public void packageVideoWritesDashManifest() throws Exception {
+		Path directory = folder.getRoot().toPath().resolve("dash");
+		VideoProfile.Builder profile = VideoProfile.builder(VideoFormats.MP4);
+		Path manifest = compressor.packageVideo(longVideo, directory, StreamingFormats.DASH, Duration.ofSeconds(4),
+				Arrays.asList(profile.resolution(ResizeResolution.R240P).build(),
+						profile.size(new IVSize(160, 120)).videoBitRate(80000).build()));
+		String mpd = new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8);
+		assertTrue(mpd.contains("contentType=\"video\""));
+		assertTrue(mpd.contains("contentType=\"audio\""));
+		assertEquals(3, mpd.split("<Representation ").length - 1);
+	}
+
+	@Test
+	public void extractFrameScalesTheFrameAtThePosition() throws Exception {
+		byte[] poster = compressor.extractFrame(video, Duration.ofMillis(1500), ResizeResolution.R240P,
+				ImageFormats.JPG);
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(poster));
+		assertEquals(426, image.getWidth());
+		assertEquals(240, image.getHeight());
+	}
+
+	@Test
+	public void extractFramesReturnsOneImagePerPosition() throws Exception {
+		List<byte[]> thumbnails = compressor.extractFrames(longVideo,
+				Arrays.asList(Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofSeconds(19)),
+				new IVSize(160, 120), ImageFormats.PNG);
+		assertEquals(3, thumbnails.size());
+		for (byte[] thumbnail : thumbnails)
+			assertEquals(160, ImageIO.read(new ByteArrayInputStream(thumbnail)).getWidth());
+	}
+
+	@Test(expected = VideoException.class)
+	public void extractFrameFailsAfterTheEnd() throws Exception {
+		compressor.extractFrame(video, Duration.ofSeconds(10), (IVSize) null, ImageFormats.PNG);
+	}
+
+	@Test
+	public void createStoryboardTilesFramesIntoSheets() throws Exception {
+		IVStoryboard storyboard = compressor.createStoryboard(longVideo, Duration.ofSeconds(2),
+				ResizeResolution.SMALL_THUMBNAIL, 4, 2, ImageFormats.JPG);
+		assertEquals(2, storyboard.getSheets().size());
+		assertEquals(10, storyboard.getTiles().size());
+		BufferedImage last = ImageIO.read(new ByteArrayInputStream(storyboard.getSheets().get(1)));
+		assertEquals(400, last.getWidth());
+		assertEquals(100, last.getHeight());
+		String vtt = storyboard.toWebVtt(Arrays.asList("a.jpg", "b.jpg"));
+		assertTrue(vtt.startsWith("WEBVTT\n"));
+		assertTrue(vtt.contains("00:00:18.000 --> 00:00:20.000\nb.jpg#xywh=100,0,100,100\n"));
+	}
+
+	@Test
+	public void convertVideoFormatWritesMatroska() throws Exception {
+		byte[] data = compressor.convertVideoFormat(Files.readAllBytes(video), VideoFormats.MP4, VideoFormats.MKV);
+		Path target = folder.getRoot().toPath().resolve("target.mkv");
+		Files.write(target, data);
+		assertTrue(new MultimediaObject(target.toFile()).getInfo().getFormat().contains("matroska"));
+	}
+
+	@Test
+	public void convertVideoFormatCopiesSupportedStreams() throws Exception {
+		byte[] data = compressor.convertVideoFormat(Files.readAllBytes(mpeg4Video), VideoFormats.MP4,
+				VideoFormats.MKV);
+		Path target = folder.getRoot().toPath().resolve("target.mkv");
+		Files.write(target, data);
+		// a re-encode would have produced h264, the default codec of matroska
+		assertTrue(new MultimediaObject(target.toFile()).getInfo().getVideo().getDecoder().startsWith("mpeg4"));
+	}
+
+	@Test
+	public void conversionWithH264ProfileIsReencoded() throws Exception {
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		VideoProfile profile = VideoProfile.conversion(VideoFormats.MP4, VideoFormats.MP4).toBuilder()
+				.h264Profile(H264Profile.BASELINE).build();
+		assertFalse(profile.isConversion());
+		assertFalse(VideoProfile.conversion(VideoFormats.MP4, VideoFormats.MP4).toBuilder().bufferSize(100000).build()
+				.isConversion());
+		compressor.reduceVideoSize(video, target, profile);
+		// the source is encoded with the high profile of x264
+		assertTrue(new MultimediaObject(target.toFile()).getInfo().getVideo().getDecoder()
+				.startsWith("h264 (Constrained Baseline)"));
+	}
+
+	@Test
+	public void convertVideoFormatTranscodesUnsupportedStreams() throws Exception {
+		Path target = folder.getRoot().toPath().resolve("target.avi");
+		compressor.reduceVideoSize(video, target, VideoProfile.conversion(VideoFormats.MP4, VideoFormats.AVI));
+		MultimediaInfo info = new MultimediaObject(target.toFile()).getInfo();
+		assertFalse(info.getVideo().getDecoder().startsWith("h264"));
+		assertEquals(640, info.getVideo().getSize().getWidth().intValue());
+	}
+
+	@Test
+	public void reduceVideoSizeDeletesTargetOnFailure() throws Exception {
+		Path source = folder.newFile("broken.mp4").toPath();
+		Files.write(source, new byte[] { 1, 2, 3 });
+		Path target = folder.getRoot().toPath().resolve("target.mp4");
+		try {
+			compressor.reduceVideoSize(source, target, VideoProfile.builder(VideoFormats.MP4).build());
+		} catch (VideoException e) {
+			assertFalse(Files.exists(target));
+			return;
+		}
+		throw new AssertionError("Broken video was encoded");
+	}
+
+	@Test
+	public void reduceVideoSizeAndSaveToAPathWritesTheTarget() throws Exception {
+		String result = compressor.reduceVideoSizeAndSaveToAPath(video.toFile(), VideoFormats.MP4, null,
+				folder.getRoot().getAbsolutePath());
+		File target = new File(folder.getRoot(), "source.mp4");
+		assertTrue(result.endsWith(target.getAbsolutePath()));
+		assertTrue(target.length() > 0);
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.corpus;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.ffmpeg.FFmpegCommand;
+import io.github.techgnious.ffmpeg.FFmpegRunner;
+import ws.schild.jave.process.ffmpeg.DefaultFFMPEGLocator;
+
+/**
+ * Generator of synthetic images and videos for benchmarks and load tests, so
+ * that no customer media has to be shipped or downloaded.
+ *
+ * The output depends on the parameters only. Images are a gradient covered
+ * with rectangles drawn from a seeded random generator, so that the encoders
+ * face both smooth areas and edges. Videos are ffmpeg's test pattern and a sine
+ * tone, encoded by the ffmpeg bundled with the library in bit exact mode.
+ *
+ * Run {@link #main(String[])} to write the standard corpus to a directory.
+ *
+ * @author srikanth.anreddy
+ *
+ */
+public final class SyntheticMedia {
+
+	/**
+	 * Largest image generated, 50 megapixels
+	 */
+	public static final long MAX_PIXELS = 50_000_000L;
+
+	/**
+	 * Seed of the images of the standard corpus
+	 */
+	public static final long DEFAULT_SEED = 42;
+
+	/**
+	 * Image sizes of the standard corpus, from VGA to 50 megapixels
+	 */
+	private static final IVSize[] CORPUS_IMAGE_SIZES = { new IVSize(640, 480), new IVSize(1920, 1080),
+			new IVSize(4000, 3000), new IVSize(8660, 5773) };
+
+	private SyntheticMedia() {
+	}
+
+	/**
+	 * Writes the standard corpus: a JPEG, a PNG and a PNG with alpha per image
+	 * size, and a four second clip per video format
+	 *
+	 * @param args - directory receiving the corpus
+	 * @throws IOException - throws exception if a file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1)
+			throw new IllegalArgumentException("Usage: SyntheticMedia <directory>");
+		for (Path file : writeCorpus(Paths.get(args[0])))
+			System.out.println(file);
+	}
+
+	/**
+	 * Writes the standard corpus, see {@link #main(String[])}
+	 *
+	 * @param directory - directory receiving the corpus, created if missing
+	 * @return - returns the written files
+	 * @throws IOException - throws exception if a file cannot be written
+	 */
+	public static List<Path> writeCorpus(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		List<Path> files = new ArrayList<>();
+		for (IVSize size : CORPUS_IMAGE_SIZES) {
+			String name = "image-" + size.getWidth() + "x" + size.getHeight();
+			files.add(Files.write(directory.resolve(name + ".jpg"),
+					createImage(size.getWidth(), size.getHeight(), ImageFormats.JPG, false, DEFAULT_SEED)));
+			files.add(Files.write(directory.resolve(name + ".png"),
+					createImage(size.getWidth(), size.getHeight(), ImageFormats.PNG, false, DEFAULT_SEED)));
+			files.add(Files.write(directory.resolve(name + "-alpha.png"),
+					createImage(size.getWidth(), size.getHeight(), ImageFormats.PNG, true, DEFAULT_SEED)));
+		}
+		for (VideoFormats format : VideoFormats.values())
+			files.add(createVideo(directory.resolve("video." + format.getType()), format, Duration.ofSeconds(4),
+					new IVSize(640, 480)));
+		return files;
+	}
+
+	/**
+	 * Creates an encoded image
+	 *
+	 * @param width  - width of the image
+	 * @param height - height of the image
+	 * @param format - format of the image
+	 * @param alpha  - whether the image has translucent areas. Only PNG can
+	 *               carry them
+	 * @param seed   - seed of the rectangles
+	 * @return - returns the encoded image
+	 * @throws IOException - throws exception if the image cannot be encoded
+	 */
+	public static byte[] createImage(int width, int height, ImageFormats format, boolean alpha, long seed)
+			throws IOException {
+		if (alpha && format != ImageFormats.PNG)
+			throw new IllegalArgumentException(format + " cannot carry alpha");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		if (!ImageIO.write(createImage(width, height, alpha, seed), format.getType(), outputStream))
+			throw new IOException("No image writer found for " + format);
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Creates a decoded image
+	 *
+	 * @param width  - width of the image
+	 * @param height - height of the image
+	 * @param alpha  - whether the image has translucent areas
+	 * @param seed   - seed of the rectangles
+	 * @return - returns the image
+	 */
+	public static BufferedImage createImage(int width, int height, boolean alpha, long seed) {
+		if (width <= 0 || height <= 0 || (long) width * height > MAX_PIXELS)
+			throw new IllegalArgumentException("Invalid image size " + width + "x" + height);
+		BufferedImage image = new BufferedImage(width, height,
+				alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			Color end = alpha ? new Color(255, 200, 0, 0) : Color.ORANGE;
+			graphics.setPaint(new GradientPaint(0, 0, Color.BLUE, width, height, end));
+			graphics.fillRect(0, 0, width, height);
+			Random random = new Random(seed);
+			for (int i = 0; i < 200; i++) {
+				graphics.setColor(new Color(random.nextInt(), alpha));
+				graphics.fillRect(random.nextInt(width), random.nextInt(height), 1 + random.nextInt(width / 4 + 1),
+						1 + random.nextInt(height / 4 + 1));
+			}
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Creates a clip with a video and an audio stream in codecs the container
+	 * commonly carries: H.264 and AAC, MPEG-4 and MP3 in AVI, WMV and WMA in WMV
+	 *
+	 * @param target   - file receiving the clip
+	 * @param format   - container of the clip
+	 * @param duration - length of the clip
+	 * @param size     - size of the video
+	 * @return - returns the target file
+	 * @throws IOException - throws exception if ffmpeg fails
+	 */
+	public static Path createVideo(Path target, VideoFormats format, Duration duration, IVSize size)
+			throws IOException {
+		String seconds = FFmpegCommand.toSeconds(duration);
+		FFmpegCommand command = new FFmpegCommand()
+				.add("-f", "lavfi", "-i",
+						"testsrc=duration=" + seconds + ":size=" + size.getWidth() + "x" + size.getHeight() + ":rate=25")
+				.add("-f", "lavfi", "-i", "sine=duration=" + seconds);
+		switch (format) {
+		case AVI:
+			command.add("-c:v", "mpeg4", "-c:a", "libmp3lame");
+			break;
+		case WMV:
+			command.add("-c:v", "wmv2", "-c:a", "wmav2");
+			break;
+		default:
+			command.add("-c:v", "libx264", "-c:a", "aac");
+		}
+		// no version strings or dates, so that every run writes the same bytes
+		command.add("-pix_fmt", "yuv420p", "-fflags", "+bitexact", "-flags:v", "+bitexact", "-flags:a",
+				"+bitexact", "-map_metadata", "-1").output(format, target.toAbsolutePath().toString());
+		new FFmpegRunner(new DefaultFFMPEGLocator()).run(command);
+		return target;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.corpus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.VideoFormats;
+import ws.schild.jave.MultimediaObject;
+import ws.schild.jave.info.MultimediaInfo;
+
+/**
+ * Unit tests for {@link SyntheticMedia}
+ */
+public class SyntheticMediaTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void createImageIsReproducible() throws Exception {
+		byte[] image = SyntheticMedia.createImage(320, 240, ImageFormats.PNG, true, 7);
+		assertArrayEquals(image, SyntheticMedia.createImage(320, 240, ImageFormats.PNG, true, 7));
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+		assertEquals(320, decoded.getWidth());
+		assertTrue(decoded.getColorModel().hasAlpha());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void createImageRejectsAlphaInJpeg() throws Exception {
+		SyntheticMedia.createImage(320, 240, ImageFormats.JPG, true, 7);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void createImageRejectsMoreThanFiftyMegapixels() {
+		SyntheticMedia.createImage(10000, 5001, false, 7);
+	}
+
+	@Test
+	public void createVideoWritesEveryFormatReproducibly() throws Exception {
+		for (VideoFormats format : VideoFormats.values()) {
+			Path video = SyntheticMedia.createVideo(folder.getRoot().toPath().resolve("a." + format.getType()),
+					format, Duration.ofSeconds(1), new IVSize(160, 120));
+			Path again = SyntheticMedia.createVideo(folder.getRoot().toPath().resolve("b." + format.getType()),
+					format, Duration.ofSeconds(1), new IVSize(160, 120));
+			assertArrayEquals(format.name(), Files.readAllBytes(video), Files.readAllBytes(again));
+			MultimediaInfo info = new MultimediaObject(video.toFile()).getInfo();
+			assertEquals(160, info.getVideo().getSize().getWidth().intValue());
+			assertTrue(info.getAudio() != null);
+		}
+	}
+}
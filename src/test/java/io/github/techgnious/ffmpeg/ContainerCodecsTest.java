@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.github.techgnious.dto.VideoFormats;
+
+/**
+ * Unit tests for {@link ContainerCodecs}
+ */
+public class ContainerCodecsTest {
+
+	@Test
+	public void canCarryMatchesTheCodecNameOnly() {
+		assertTrue(ContainerCodecs.canCarry(VideoFormats.MP4, "h264 (High) (avc1 / 0x31637661)",
+				"aac (LC) (mp4a / 0x6134706D)"));
+		assertTrue(ContainerCodecs.canCarry(VideoFormats.MKV, "h264 (Main)", null));
+	}
+
+	@Test
+	public void canCarryRejectsUnsupportedStreams() {
+		assertFalse(ContainerCodecs.canCarry(VideoFormats.AVI, "h264 (High)", "mp3"));
+		assertFalse(ContainerCodecs.canCarry(VideoFormats.MP4, "h264 (High)", "wmav2"));
+		assertFalse(ContainerCodecs.canCarry(VideoFormats.FLV, null, null));
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.techgnious.dto.H264Profile;
+import io.github.techgnious.dto.IVVideoAttributes;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoPreset;
+import io.github.techgnious.dto.VideoProfile;
+import io.github.techgnious.dto.VideoTune;
+
+/**
+ * Unit tests for {@link FFmpegCommand}
+ */
+public class FFmpegCommandTest {
+
+	@Test
+	public void encodeUsesBitRateAndBaselineByDefault() {
+		List<String> arguments = new FFmpegCommand().encode(VideoProfile.builder(VideoFormats.MP4).build())
+				.getArguments();
+		assertEquals("baseline", valueOf(arguments, "-profile:v"));
+		assertEquals("160000", valueOf(arguments, "-b:v"));
+		assertFalse(arguments.contains("-crf"));
+		assertFalse(arguments.contains("-preset"));
+	}
+
+	@Test
+	public void encodeUsesCappedCrfInsteadOfBitRate() {
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).h264Profile(H264Profile.HIGH)
+				.preset(VideoPreset.SLOW).tune(VideoTune.FILM).crf(20).maxBitRate(1000000).threads(2).build();
+		List<String> arguments = new FFmpegCommand().encode(profile).getArguments();
+		assertEquals("high", valueOf(arguments, "-profile:v"));
+		assertEquals("slow", valueOf(arguments, "-preset"));
+		assertEquals("film", valueOf(arguments, "-tune"));
+		assertEquals("20", valueOf(arguments, "-crf"));
+		assertEquals("1000000", valueOf(arguments, "-maxrate"));
+		assertEquals("2000000", valueOf(arguments, "-bufsize"));
+		assertEquals("2", valueOf(arguments, "-threads"));
+		assertFalse(arguments.contains("-b:v"));
+	}
+
+	@Test
+	public void encodeAddressesSingleStreams() {
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).preset(VideoPreset.FAST).build();
+		List<String> arguments = new FFmpegCommand().encodeVideo(profile, 1).encodeAudio(profile, 0)
+				.getArguments();
+		assertEquals("h264", valueOf(arguments, "-c:v:1"));
+		assertEquals("fast", valueOf(arguments, "-preset:v:1"));
+		assertEquals("400x300", valueOf(arguments, "-s:v:1"));
+		assertEquals("64000", valueOf(arguments, "-b:a:0"));
+		assertEquals("2", valueOf(arguments, "-ac:a:0"));
+	}
+
+	@Test
+	public void videoAttributesCarryTheEncoderSettings() {
+		IVVideoAttributes attributes = new IVVideoAttributes();
+		attributes.setPreset(VideoPreset.ULTRAFAST);
+		attributes.setCrf(28);
+		VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).videoAttributes(attributes).build();
+		assertEquals(VideoPreset.ULTRAFAST, profile.getPreset());
+		assertEquals(Integer.valueOf(28), profile.getCrf());
+		assertEquals(H264Profile.BASELINE, profile.getH264Profile());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void crfOutOfRangeIsRejected() {
+		VideoProfile.builder(VideoFormats.MP4).crf(52);
+	}
+
+	private static String valueOf(List<String> arguments, String option) {
+		int index = arguments.indexOf(option);
+		assertTrue(option + " missing in " + arguments, index >= 0);
+		return arguments.get(index + 1);
+	}
+}
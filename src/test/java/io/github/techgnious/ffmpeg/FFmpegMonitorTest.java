@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.ffmpeg;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.github.techgnious.dto.IVProgress;
+import ws.schild.jave.process.ffmpeg.DefaultFFMPEGLocator;
+
+/**
+ * Unit tests for {@link FFmpegMonitor}
+ */
+public class FFmpegMonitorTest {
+
+	private final FFmpegRunner ffmpeg = new FFmpegRunner(new DefaultFFMPEGLocator());
+
+	@Test
+	public void childIsCancelledWithoutItsJob() throws Exception {
+		FFmpegMonitor job = new FFmpegMonitor(null);
+		FFmpegMonitor child = job.child();
+		CompletableFuture<Void> run = runUntilCancelled(child);
+		awaitProgress(job);
+		child.cancel();
+		child.awaitRuns();
+		assertFailed(run);
+		assertTrue(child.isCancelled());
+		assertFalse(job.isCancelled());
+	}
+
+	@Test
+	public void jobCancelsItsChildren() throws Exception {
+		FFmpegMonitor job = new FFmpegMonitor(null);
+		FFmpegMonitor child = job.child();
+		CompletableFuture<Void> run = runUntilCancelled(child);
+		awaitProgress(job);
+		job.cancel();
+		child.awaitRuns();
+		assertFailed(run);
+		assertTrue(child.isCancelled());
+		try {
+			ffmpeg.run(new FFmpegCommand().add("-version"), child);
+			fail("run started after the job was cancelled");
+		} catch (IOException expected) {
+			// cancelled before ffmpeg started
+		}
+	}
+
+	@Test
+	public void awaitRunsReturnsWithoutRuns() {
+		new FFmpegMonitor(null).child().awaitRuns();
+	}
+
+	/**
+	 * @param monitor
+	 * @return - returns the run of a real-time encode lasting a minute
+	 */
+	private CompletableFuture<Void> runUntilCancelled(FFmpegMonitor monitor) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				ffmpeg.run(new FFmpegCommand().add("-re", "-f", "lavfi", "-i", "testsrc=duration=60", "-f", "null",
+						"-"), monitor);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private static void awaitProgress(FFmpegMonitor job) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		IVProgress progress = job.getProgress();
+		while (progress == null && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+			progress = job.getProgress();
+		}
+		assertNotNull("ffmpeg reported no progress", progress);
+	}
+
+	private static void assertFailed(CompletableFuture<Void> run) throws Exception {
+		try {
+			run.get(10, TimeUnit.SECONDS);
+			fail("cancelled run succeeded");
+		} catch (ExecutionException expected) {
+			// the run was destroyed
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.techgnious.IVCompressor;
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.ProcessingStage;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.exception.VideoException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for {@link IVFlightRecorder}
+ */
+public class IVFlightRecorderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final IVCompressor compressor = new IVCompressor();
+
+	@Before
+	public void checkJfr() {
+		assumeTrue(IVFlightRecorder.isAvailable());
+	}
+
+	@Test
+	public void resizeImageRecordsEvents() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png", out);
+		Map<String, RecordedEvent> events = record(() -> compressor.resizeAndSaveImageToAPath(out.toByteArray(),
+				"image.png", ImageFormats.JPG, folder.getRoot().getPath(), ResizeResolution.R240P));
+		RecordedEvent decode = events.get("io.github.techgnious.ImageDecode");
+		// the decoder stops before the trailing chunks of the PNG
+		assertTrue(decode.getLong("bytesRead") > out.size() / 2);
+		assertTrue(decode.getLong("bytesRead") <= out.size());
+		assertEquals(1600, decode.getInt("sourceWidth"));
+		assertEquals(1200, decode.getInt("sourceHeight"));
+		assertEquals(534, decode.getInt("width"));
+		RecordedEvent resize = events.get("io.github.techgnious.ImageResize");
+		assertEquals(534, resize.getInt("sourceWidth"));
+		assertEquals(426, resize.getInt("targetWidth"));
+		assertEquals(240, resize.getInt("targetHeight"));
+		RecordedEvent encode = events.get("io.github.techgnious.ImageEncode");
+		assertEquals("jpg", encode.getString("format"));
+		RecordedEvent save = events.get("io.github.techgnious.FileSave");
+		assertEquals(encode.getLong("bytesWritten"), save.getLong("bytesWritten"));
+		assertFalse(save.getBoolean("failed"));
+	}
+
+	@Test
+	public void disabledEventsAreNotStarted() {
+		assertNull(IVFlightRecorder.beginStage(ProcessingStage.IMAGE_DECODE));
+	}
+
+	@Test
+	public void failedVideoEncodeRecordsExitCode() throws Exception {
+		Map<String, RecordedEvent> events = record(() -> {
+			try {
+				compressor.reduceVideoSize(new byte[] { 1, 2, 3 }, VideoFormats.MP4, ResizeResolution.R240P);
+			} catch (VideoException e) {
+				// expected
+			}
+		});
+		assertEquals(3, events.get("io.github.techgnious.TempFileWrite").getLong("bytesWritten"));
+		RecordedEvent encode = events.get("io.github.techgnious.VideoEncode");
+		assertTrue(encode.getBoolean("failed"));
+		assertTrue(encode.getInt("exitCode") > 0);
+		assertFalse(events.containsKey("io.github.techgnious.TempFileRead"));
+	}
+
+	/**
+	 * Runs the task while recording the events of this library
+	 *
+	 * @param task
+	 * @return - returns the last recorded event of each type
+	 * @throws Exception
+	 */
+	private Map<String, RecordedEvent> record(Task task) throws Exception {
+		Path file = folder.newFile("recording.jfr").toPath();
+		try (Recording recording = new Recording()) {
+			for (String name : new String[] { "ImageDecode", "ImageResize", "ImageFlatten", "ImageEncode",
+					"VideoEncode", "TempFileWrite", "TempFileRead", "FileSave" })
+				recording.enable("io.github.techgnious." + name);
+			recording.start();
+			task.run();
+			recording.stop();
+			recording.dump(file);
+		}
+		Map<String, RecordedEvent> events = new HashMap<>();
+		List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+		for (RecordedEvent event : recorded)
+			events.put(event.getEventType().getName(), event);
+		return events;
+	}
+
+	private interface Task {
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.resample;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the built-in {@link Resamplers}
+ */
+public class ResamplersTest {
+
+	private static final int[] TYPES = { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+			BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY,
+			BufferedImage.TYPE_USHORT_565_RGB };
+
+	@Test
+	public void resampleKeepsUniformColour() {
+		for (Resamplers resampler : Resamplers.values()) {
+			for (int type : TYPES) {
+				BufferedImage source = filled(1000, 700, type, new Color(200, 200, 200));
+				BufferedImage target = resampler.resample(source, 189, 100);
+				assertEquals(resampler + "/" + type, 189, target.getWidth());
+				assertEquals(resampler + "/" + type, 100, target.getHeight());
+				int expected = filled(1, 1, type, new Color(200, 200, 200)).getRGB(0, 0);
+				assertColour(resampler + "/" + type, expected, target.getRGB(94, 50));
+				assertColour(resampler + "/" + type, expected, target.getRGB(0, 99));
+			}
+		}
+	}
+
+	@Test
+	public void resampleUpscales() {
+		BufferedImage source = filled(10, 10, BufferedImage.TYPE_INT_RGB, Color.RED);
+		for (Resamplers resampler : Resamplers.values()) {
+			BufferedImage target = resampler.resample(source, 100, 50);
+			assertEquals(Color.RED.getRGB(), target.getRGB(99, 49));
+		}
+	}
+
+	@Test
+	public void transparentPixelsDoNotBleedColour() {
+		BufferedImage source = new BufferedImage(90, 90, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = source.createGraphics();
+		g.setColor(Color.BLUE);
+		g.fillRect(0, 0, 45, 90);
+		g.dispose();
+		for (Resamplers resampler : Resamplers.values()) {
+			BufferedImage target = resampler.resample(source, 9, 9);
+			int edge = target.getRGB(4, 4);
+			if ((edge >>> 24) > 0)
+				assertEquals(resampler.toString(), Color.BLUE.getRGB() & 0xffffff, edge & 0xffffff);
+		}
+	}
+
+	private static void assertColour(String message, int expected, int actual) {
+		for (int shift = 0; shift < 32; shift += 8) {
+			int difference = ((expected >>> shift) & 0xff) - ((actual >>> shift) & 0xff);
+			if (Math.abs(difference) > 8)
+				assertEquals(message, expected, actual);
+		}
+	}
+
+	private static BufferedImage filled(int width, int height, int type, Color color) {
+		BufferedImage image = new BufferedImage(width, height, type);
+		Graphics2D g = image.createGraphics();
+		g.setColor(color);
+		g.fillRect(0, 0, width, height);
+		g.dispose();
+		return image;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Test;
+
+import io.github.techgnious.dto.IVSize;
+
+/**
+ * Unit tests for {@link IVImageUtils}
+ */
+public class IVImageUtilsTest {
+
+	@Test
+	public void subsamplingFactorKeepsImageAboveTarget() {
+		assertEquals(11, IVImageUtils.getSubsamplingFactor(6000, 4000, 480, 360));
+		assertEquals(1, IVImageUtils.getSubsamplingFactor(640, 480, 480, 360));
+		assertEquals(1, IVImageUtils.getSubsamplingFactor(100, 100, 480, 360));
+		assertEquals(1, IVImageUtils.getSubsamplingFactor(100, 100, 0, 0));
+	}
+
+	@Test
+	public void readImageDecodesSubsampledImage() throws IOException {
+		byte[] data = encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg");
+		try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+			BufferedImage image = IVImageUtils.readImage(stream, 480, 360);
+			assertEquals(1000, image.getWidth());
+			assertEquals(500, image.getHeight());
+		}
+	}
+
+	@Test
+	public void getImageSizeLeavesStreamReadable() throws IOException {
+		byte[] data = encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png");
+		try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+			IVSize size = IVImageUtils.getImageSize(stream);
+			assertEquals(2000, size.getWidth());
+			assertEquals(1000, size.getHeight());
+			assertEquals(0, stream.getStreamPosition());
+			assertEquals(1000, IVImageUtils.readImage(stream, 480, 360).getWidth());
+		}
+	}
+
+	@Test
+	public void readImageReportsSourceSize() throws IOException {
+		byte[] data = encode(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg");
+		List<IVSize> sourceSizes = new ArrayList<>();
+		try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+			IVImageUtils.readImage(stream, 480, 360, sourceSizes::add);
+		}
+		assertEquals(1, sourceSizes.size());
+		assertEquals(2000, sourceSizes.get(0).getWidth());
+		assertEquals(1000, sourceSizes.get(0).getHeight());
+	}
+
+	static byte[] encode(BufferedImage image, String format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+}
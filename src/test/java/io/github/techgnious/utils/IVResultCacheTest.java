@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.techgnious.dto.ImageFormats;
+import io.github.techgnious.dto.ImageProfile;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoProfile;
+import io.github.techgnious.resample.Resamplers;
+
+/**
+ * Unit tests for {@link IVResultCache}
+ */
+public class IVResultCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void createKeyDependsOnContentAndProfile() {
+		byte[] data = { 1, 2, 3 };
+		ImageProfile small = ImageProfile.builder(ImageFormats.JPG).resolution(ResizeResolution.R240P).build();
+		ImageProfile large = ImageProfile.builder(ImageFormats.JPG).resolution(ResizeResolution.R480P).build();
+		assertEquals(IVResultCache.createKey(data, small), IVResultCache.createKey(data.clone(), small));
+		assertNotEquals(IVResultCache.createKey(data, small), IVResultCache.createKey(data, large));
+		assertNotEquals(IVResultCache.createKey(data, small), IVResultCache.createKey(new byte[] { 1, 2 }, small));
+		assertNotEquals(IVResultCache.createKey(data, VideoProfile.builder(VideoFormats.MP4).build()),
+				IVResultCache.createKey(data, VideoProfile.builder(VideoFormats.MKV).build()));
+	}
+
+	@Test
+	public void createKeySkipsCustomResamplers() {
+		ImageProfile profile = ImageProfile.builder(ImageFormats.JPG)
+				.resampler((BufferedImage source, int width, int height) -> source).build();
+		assertNull(IVResultCache.createKey(new byte[] { 1 }, profile));
+		assertEquals(64, IVResultCache.createKey(new byte[] { 1 },
+				ImageProfile.builder(ImageFormats.JPG).resampler(Resamplers.BILINEAR).build()).length());
+	}
+
+	@Test
+	public void memoryEvictsLeastRecentlyUsedResults() {
+		IVResultCache cache = new IVResultCache(10);
+		cache.put("a", new byte[4]);
+		cache.put("b", new byte[4]);
+		cache.get("a");
+		cache.put("c", new byte[4]);
+		assertNull(cache.get("b"));
+		assertArrayEquals(new byte[4], cache.get("a"));
+		assertEquals(8, cache.getMemoryBytes());
+		cache.put("d", new byte[11]);
+		assertNull(cache.get("d"));
+	}
+
+	@Test
+	public void getReturnsCopies() {
+		IVResultCache cache = new IVResultCache(10);
+		byte[] value = { 1, 2 };
+		cache.put("a", value);
+		value[0] = 9;
+		cache.get("a")[1] = 9;
+		assertArrayEquals(new byte[] { 1, 2 }, cache.get("a"));
+	}
+
+	@Test
+	public void diskKeepsResultsEvictedFromMemory() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		IVResultCache cache = new IVResultCache(4, directory, 8);
+		String a = IVResultCache.createKey(new byte[] { 1 }, VideoProfile.builder(VideoFormats.MP4).build());
+		String b = IVResultCache.createKey(new byte[] { 2 }, VideoProfile.builder(VideoFormats.MP4).build());
+		String c = IVResultCache.createKey(new byte[] { 3 }, VideoProfile.builder(VideoFormats.MP4).build());
+		cache.put(a, new byte[] { 1, 1, 1, 1 });
+		cache.put(b, new byte[] { 2, 2, 2, 2 });
+		cache.put(c, new byte[] { 3, 3, 3, 3 });
+		assertEquals(8, cache.getDiskBytes());
+		assertArrayEquals(new byte[] { 1, 1, 1, 1 }, cache.get(a));
+
+		IVResultCache reopened = new IVResultCache(4, directory, 8);
+		assertEquals(8, reopened.getDiskBytes());
+		// moving a back into memory pushed c out, and b off the disk
+		assertArrayEquals(new byte[] { 3, 3, 3, 3 }, reopened.get(c));
+		assertNull(reopened.get(b));
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.techgnious.dto.VideoFormats;
+
+/**
+ * Unit tests for {@link IVScratchSpace}
+ */
+public class IVScratchSpaceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void reservationCreatesAndDeletesFiles() throws Exception {
+		IVScratchSpace scratchSpace = new IVScratchSpace(folder.getRoot().toPath(), 100, Duration.ZERO);
+		Path file;
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(60)) {
+			file = reservation.createFile("target", VideoFormats.MKV);
+			assertTrue(file.getFileName().toString().matches("target\\d+\\.mkv"));
+			assertEquals(60, scratchSpace.getReservedBytes());
+		}
+		assertFalse(Files.exists(file));
+		assertEquals(0, scratchSpace.getReservedBytes());
+	}
+
+	@Test(expected = IOException.class)
+	public void reserveRejectsWhenQuotaIsUsed() throws Exception {
+		IVScratchSpace scratchSpace = new IVScratchSpace(folder.getRoot().toPath(), 100, Duration.ZERO);
+		try (IVScratchSpace.Reservation reservation = scratchSpace.reserve(60)) {
+			scratchSpace.reserve(60);
+		}
+	}
+
+	@Test
+	public void reserveWaitsForSpaceToBeFreed() throws Exception {
+		IVScratchSpace scratchSpace = new IVScratchSpace(folder.getRoot().toPath(), 100, Duration.ofSeconds(10));
+		IVScratchSpace.Reservation first = scratchSpace.reserve(60);
+		CompletableFuture<IVScratchSpace.Reservation> second = CompletableFuture.supplyAsync(() -> {
+			try {
+				return scratchSpace.reserve(60);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(200);
+		assertFalse(second.isDone());
+		first.close();
+		second.get(10, TimeUnit.SECONDS).close();
+		assertEquals(0, scratchSpace.getReservedBytes());
+	}
+
+	@Test
+	public void purgeOrphansDeletesOldTempFilesOnly() throws Exception {
+		Path orphan = folder.newFile("ivcompressor-source123.mp4").toPath();
+		Path recent = folder.newFile("ivcompressor-target456.mp4").toPath();
+		Path foreign = folder.newFile("target789.mp4").toPath();
+		Path legacy = folder.newFile("source012mp4").toPath();
+		FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+		for (Path file : new Path[] { orphan, foreign, legacy })
+			Files.setLastModifiedTime(file, old);
+		new IVScratchSpace(folder.getRoot().toPath(), 100, Duration.ZERO);
+		assertFalse(Files.exists(orphan));
+		assertTrue(Files.exists(recent));
+		// generic names may belong to other programs in a shared directory
+		assertTrue(Files.exists(foreign));
+		assertTrue(Files.exists(legacy));
+	}
+
+	@Test
+	public void purgeOrphansDeletesLegacyTempFilesInDedicatedDirectoryOnly() throws Exception {
+		Path legacy = folder.newFile("source012mp4").toPath();
+		Path legacyTarget = folder.newFile("target345.mkv").toPath();
+		Path foreign = folder.newFile("video789.mp4").toPath();
+		FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+		for (Path file : new Path[] { legacy, legacyTarget, foreign })
+			Files.setLastModifiedTime(file, old);
+		new IVScratchSpace(folder.getRoot().toPath(), 100, Duration.ZERO, true);
+		assertFalse(Files.exists(legacy));
+		assertFalse(Files.exists(legacyTarget));
+		assertTrue(Files.exists(foreign));
+	}
+
+	@Test
+	public void purgeOrphansDeletesOldTempDirectoriesOfThisLibraryOnly() throws Exception {
+		Path orphan = folder.newFolder("ivcompressor-segments123").toPath();
+		Files.createFile(orphan.resolve("chunk000.mkv"));
+		Path orphanFrames = folder.newFolder("ivcompressor-frames789").toPath();
+		Path foreign = folder.newFolder("segments456").toPath();
+		Path foreignFrames = folder.newFolder("frames012").toPath();
+		FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+		for (Path directory : new Path[] { orphan, orphanFrames, foreign, foreignFrames })
+			Files.setLastModifiedTime(directory, old);
+		new IVScratchSpace(folder.getRoot().toPath(), 100, Duration.ZERO);
+		assertFalse(Files.exists(orphan));
+		assertFalse(Files.exists(orphanFrames));
+		assertTrue(Files.exists(foreign));
+		assertTrue(Files.exists(foreignFrames));
+	}
+}
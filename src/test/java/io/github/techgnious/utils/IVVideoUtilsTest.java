@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.github.techgnious.dto.IVSize;
+import io.github.techgnious.dto.ResizeResolution;
+import io.github.techgnious.dto.VideoFormats;
+import io.github.techgnious.dto.VideoProfile;
+import ws.schild.jave.info.AudioInfo;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.info.VideoInfo;
+import ws.schild.jave.info.VideoSize;
+
+/**
+ * Unit tests for {@link IVVideoUtils}
+ */
+public class IVVideoUtilsTest {
+
+	private final VideoProfile profile = VideoProfile.builder(VideoFormats.MP4).build();
+
+	@Test
+	public void smallSourceIsWithinTheDefaultProfile() {
+		assertTrue(IVVideoUtils.isWithinProfile(source("h264 (Constrained Baseline)", 320, 240, 100), profile));
+	}
+
+	@Test
+	public void sourceAboveAnyLimitIsNotWithinTheProfile() {
+		assertFalse(IVVideoUtils.isWithinProfile(source("h264 (Constrained Baseline)", 640, 240, 100), profile));
+		assertFalse(IVVideoUtils.isWithinProfile(source("h264 (Constrained Baseline)", 320, 240, 500), profile));
+		assertFalse(IVVideoUtils.isWithinProfile(source("h264 (High)", 320, 240, 100), profile));
+		assertFalse(IVVideoUtils.isWithinProfile(source("hevc (Main)", 320, 240, 100), profile));
+	}
+
+	@Test
+	public void unknownSourceValuesAreNotWithinTheProfile() {
+		assertFalse(IVVideoUtils.isWithinProfile(source("h264 (Constrained Baseline)", 320, 240, -1), profile));
+	}
+
+	@Test
+	public void clampToSourceNeverRaisesAnAttribute() {
+		VideoProfile clamped = IVVideoUtils.clampToSource(profile, source("h264 (High)", 320, 240, 100));
+		assertNull(clamped.getSize());
+		assertNull(clamped.getFrameRate());
+		assertEquals(Integer.valueOf(100000), clamped.getVideoBitRate());
+		assertNull(clamped.getChannels());
+		assertNull(clamped.getSamplingRate());
+		assertEquals(Integer.valueOf(48000), clamped.getAudioBitRate());
+	}
+
+	@Test
+	public void clampToSourceKeepsLimitsBelowTheSource() {
+		VideoProfile clamped = IVVideoUtils.clampToSource(profile, source("h264 (High)", 1920, 1080, 5000));
+		IVSize size = clamped.getSize();
+		assertEquals(400, size.getWidth());
+		assertEquals(Integer.valueOf(160000), clamped.getVideoBitRate());
+	}
+
+	@Test
+	public void clampToSourceScalesSizeIntoASourceExceedingOneDimension() {
+		VideoProfile hd = VideoProfile.builder(VideoFormats.MP4).resolution(ResizeResolution.R720P).build();
+		VideoProfile clamped = IVVideoUtils.clampToSource(hd, source("h264 (High)", 640, 1136, 5000));
+		IVSize size = clamped.getSize();
+		assertEquals(640, size.getWidth());
+		assertEquals(360, size.getHeight());
+	}
+
+	private static MultimediaInfo source(String decoder, int width, int height, int kiloBitRate) {
+		VideoInfo video = new VideoInfo();
+		video.setDecoder(decoder);
+		video.setSize(new VideoSize(width, height));
+		video.setFrameRate(15);
+		video.setBitRate(kiloBitRate < 0 ? -1 : kiloBitRate * 1000);
+		AudioInfo audio = new AudioInfo();
+		audio.setDecoder("aac (LC) (mp4a / 0x6134706D)");
+		audio.setBitRate(48000);
+		audio.setChannels(1);
+		audio.setSamplingRate(22050);
+		MultimediaInfo info = new MultimediaInfo();
+		info.setVideo(video);
+		info.setAudio(audio);
+		return info;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Srikanth Reddy Anreddy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.techgnious.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.github.techgnious.dto.RejectionPolicy;
+
+/**
+ * Unit tests for {@link IVWorkerPool}
+ */
+public class IVWorkerPoolTest {
+
+	@Test
+	public void abortRejectsTasksBeyondTheQueue() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (IVWorkerPool pool = new IVWorkerPool(1, 1, RejectionPolicy.ABORT)) {
+			CompletableFuture<String> running = pool.submit(() -> {
+				release.await();
+				return "running";
+			});
+			CompletableFuture<String> queued = pool.submit(() -> "queued");
+			CompletableFuture<String> rejected = pool.submit(() -> "rejected");
+			try {
+				rejected.get();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof RejectedExecutionException);
+			}
+			assertTrue(rejected.isCompletedExceptionally());
+			release.countDown();
+			assertEquals("running", running.get(10, TimeUnit.SECONDS));
+			assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void callerRunsTasksBeyondTheQueue() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (IVWorkerPool pool = new IVWorkerPool(1, 0, RejectionPolicy.CALLER_RUNS)) {
+			pool.submit(() -> {
+				release.await();
+				return null;
+			});
+			CompletableFuture<String> overflow = pool.submit(() -> Thread.currentThread().getName());
+			assertTrue(overflow.isDone());
+			assertEquals(Thread.currentThread().getName(), overflow.get());
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void blockWaitsForRoomInTheQueue() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (IVWorkerPool pool = new IVWorkerPool(1, 1, RejectionPolicy.BLOCK)) {
+			pool.submit(() -> {
+				release.await();
+				return null;
+			});
+			pool.submit(() -> null);
+			CompletableFuture<CompletableFuture<String>> blocked = CompletableFuture
+					.supplyAsync(() -> pool.submit(() -> "blocked"));
+			Thread.sleep(200);
+			assertFalse(blocked.isDone());
+			release.countDown();
+			assertEquals("blocked", blocked.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void blockedTaskCompletesWhenPoolShutsDown() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		IVWorkerPool pool = new IVWorkerPool(1, 1, RejectionPolicy.BLOCK);
+		pool.submit(() -> {
+			release.await();
+			return null;
+		});
+		pool.submit(() -> null);
+		CompletableFuture<CompletableFuture<String>> blocked = CompletableFuture
+				.supplyAsync(() -> pool.submit(() -> "blocked"));
+		Thread.sleep(200);
+		pool.close();
+		release.countDown();
+		CompletableFuture<String> task = blocked.get(10, TimeUnit.SECONDS);
+		try {
+			// run by the draining worker, or rejected once it is gone
+			assertEquals("blocked", task.get(10, TimeUnit.SECONDS));
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+	}
+}